@@ -0,0 +1,104 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный тест через HTTP: {@value CLIENTS} клиентов одновременно обращаются к запущенному Tomcat.
+ * По умолчанию {@code mode = platform} - обычный пул Tomcat. Профиль virtual-threads включается явно
+ * через {@code -p mode=virtual} (или {@code -p mode=platform,virtual} для сравнения) и требует JDK 21
+ * и сборки {@code -P benchmark,virtual-threads}. Пропускная способность и p99 берутся
+ * из режимов Throughput и SampleTime. Клиентов меньше, чем потоков и очереди пула подсистемы,
+ * поэтому в обеих конфигурациях запросы не отклоняются с 503.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(HttpLoadBenchmark.CLIENTS)
+@Fork(1)
+public class HttpLoadBenchmark {
+    public static final int CLIENTS = 100;
+    private static final String VIRTUAL_THREADS_CONFIGURATION = "ru.practicum.shareit.bulkhead.VirtualThreadsConfiguration";
+
+    @Param({"platform"})
+    public String mode;
+
+    @Param({"10000"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest ownerBookings;
+    private HttpRequest item;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(mode);
+        if (virtual && !ClassUtils.isPresent(VIRTUAL_THREADS_CONFIGURATION, getClass().getClassLoader())) {
+            throw new IllegalStateException("Режим mode=virtual доступен только в сборке с -P virtual-threads на JDK 21");
+        }
+        System.setProperty("server.port", "0");
+        context = virtual
+                ? ShareItState.start(WebApplicationType.SERVLET, "test", "virtual-threads")
+                : ShareItState.start(WebApplicationType.SERVLET, "test");
+        QueryDataset dataset = ShareItState.load(context, size);
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        String owner = String.valueOf(dataset.getOwnerId());
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ownerBookings = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/owner?state=ALL"))
+                .header("X-Sharer-User-Id", owner)
+                .build();
+        item = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/items/" + dataset.getItemId()))
+                .header("X-Sharer-User-Id", owner)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.clearProperty("server.port");
+    }
+
+    @Benchmark
+    public String getAllBookingItemByUser() throws IOException, InterruptedException {
+        return send(ownerBookings);
+    }
+
+    @Benchmark
+    public String getItemById() throws IOException, InterruptedException {
+        return send(item);
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " вернул " + response.statusCode());
+        }
+        return response.body();
+    }
+}
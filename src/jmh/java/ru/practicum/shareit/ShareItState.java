@@ -0,0 +1,74 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Поднимает контекст приложения на H2 без тестовых компонентов и наполняет базу через {@link QueryDataset}.
+ */
+@State(Scope.Benchmark)
+public class ShareItState {
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+    private QueryDataset dataset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = start(WebApplicationType.NONE, "test");
+        dataset = load(context, size);
+    }
+
+    /**
+     * Запускает приложение без тестовых компонентов и с приглушённым логированием.
+     */
+    public static ConfigurableApplicationContext start(WebApplicationType web, String... profiles) {
+        System.setProperty("logging.level.root", "WARN");
+        System.setProperty("logging.level.org.springframework.transaction.interceptor", "WARN");
+        System.setProperty("logging.level.org.springframework.orm.jpa.JpaTransactionManager", "WARN");
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .profiles(profiles)
+                .web(web)
+                .logStartupInfo(false)
+                .initializers(c -> c.getBeanFactory().registerSingleton("testComponentExcludeFilter", new TypeExcludeFilter() {
+                    @Override
+                    public boolean match(MetadataReader reader, MetadataReaderFactory factory) {
+                        return reader.getAnnotationMetadata().hasAnnotation(TestComponent.class.getName());
+                    }
+                }))
+                .run();
+    }
+
+    public static QueryDataset load(ConfigurableApplicationContext context, int size) {
+        QueryDataset dataset = new QueryDataset(context.getBean(JdbcTemplate.class), context.getBean(CacheManager.class));
+        dataset.load(size);
+        return dataset;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public QueryDataset getDataset() {
+        return dataset;
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItState;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.user.entity.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пачка бронирований, сохраняемая в одной транзакции. При {@code jdbcBatchSize = 1} каждая строка уходит
+ * в базу отдельным запросом, как было с IDENTITY; при 50 Hibernate отправляет их пакетами.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingInsertBenchmark {
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    @Param({"500"})
+    public int burst;
+
+    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private Long itemId;
+    private Long bookerId;
+    private Long lastBookingId;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItState shareIt) {
+        entityManagerFactory = shareIt.getBean(EntityManagerFactory.class);
+        transactionTemplate = shareIt.getBean(TransactionTemplate.class);
+        jdbcTemplate = shareIt.getBean(JdbcTemplate.class);
+        itemId = shareIt.getDataset().getFreeItemId();
+        bookerId = shareIt.getDataset().getBookerId();
+        lastBookingId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM booking", Long.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        jdbcTemplate.update("DELETE FROM booking WHERE id > ?", lastBookingId);
+    }
+
+    @Benchmark
+    public int createBookings() {
+        return transactionTemplate.execute(status -> {
+            EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            Item item = entityManager.getReference(Item.class, itemId);
+            User booker = entityManager.getReference(User.class, bookerId);
+            LocalDateTime start = LocalDateTime.now().plusDays(1);
+            for (int i = 0; i < burst; i++) {
+                Booking booking = new Booking();
+                booking.setStart(start.plusHours(i));
+                booking.setEnd(start.plusHours(i).plusMinutes(30));
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStatus(BookingStatus.WAITING);
+                entityManager.persist(booking);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return burst;
+        });
+    }
+}
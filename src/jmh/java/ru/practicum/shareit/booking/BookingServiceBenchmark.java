@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.ShareItState;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    public BookingStatus state;
+
+    private BookingService bookingService;
+    private Long bookerId;
+    private Long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItState shareIt) {
+        bookingService = shareIt.getBean(BookingService.class);
+        bookerId = shareIt.getDataset().getBookerId();
+        ownerId = shareIt.getDataset().getOwnerId();
+    }
+
+    @Benchmark
+    public Collection<BookingResponseDto> getAllBookingByUser() {
+        return bookingService.getAllBookingByUser(bookerId, state, 0, 10, null);
+    }
+
+    @Benchmark
+    public Collection<BookingResponseDto> getAllBookingItemByUser() {
+        return bookingService.getAllBookingItemByUser(ownerId, state, 0, 10, null);
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.QueryDataset;
+import ru.practicum.shareit.ShareItState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDataDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemViewCache;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+    private ItemService itemService;
+    private ItemViewCache itemViewCache;
+    private BookingRepository bookingRepository;
+    private Long ownerId;
+    private Long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItState shareIt) {
+        itemService = shareIt.getBean(ItemService.class);
+        itemViewCache = shareIt.getBean(ItemViewCache.class);
+        bookingRepository = shareIt.getBean(BookingRepository.class);
+        ownerId = shareIt.getDataset().getOwnerId();
+        itemId = shareIt.getDataset().getItemId();
+    }
+
+    /**
+     * Карточка вещи для владельца без кэша: вещь, отзывы и ссылки на бронирования.
+     */
+    @Benchmark
+    public ItemDataDto getItemById() {
+        itemViewCache.evict(itemId);
+        return itemService.getItemById(itemId, ownerId);
+    }
+
+    /**
+     * Запасной путь карточки, когда ссылки устарели: два поиска LIMIT 1 по индексам бронирований вещи.
+     */
+    @Benchmark
+    public void findLastAndNextByItemId(Blackhole blackhole) {
+        LocalDateTime time = LocalDateTime.now();
+        blackhole.consume(bookingRepository.findLastByItemId(itemId, time));
+        blackhole.consume(bookingRepository.findNextByItemId(itemId, time));
+    }
+
+    @Benchmark
+    public Collection<ItemDataDto> getItemByUser() {
+        return itemService.getItemByUser(ownerId);
+    }
+
+    @Benchmark
+    public Collection<ItemDto> getItemBySearch() {
+        return itemService.getItemBySearch(QueryDataset.SEARCH_TEXT, 0, 10);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.request;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.ShareItState;
+import ru.practicum.shareit.request.dto.ItemGetRequestDTO;
+import ru.practicum.shareit.request.service.RequestService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestServiceBenchmark {
+    private RequestService requestService;
+    private Long userId;
+    private Long requesterId;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItState shareIt) {
+        requestService = shareIt.getBean(RequestService.class);
+        userId = shareIt.getDataset().getBookerId();
+        requesterId = shareIt.getDataset().getRequesterId();
+    }
+
+    @Benchmark
+    public List<ItemGetRequestDTO> getListAllRequest() {
+        return requestService.getListAllRequest(userId, 0, 10, null);
+    }
+
+    @Benchmark
+    public List<ItemGetRequestDTO> getListRequest() {
+        return requestService.getListRequest(requesterId, 0, 10, null);
+    }
+}
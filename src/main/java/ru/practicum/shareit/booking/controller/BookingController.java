@@ -1,59 +1,113 @@
 package ru.practicum.shareit.booking.controller;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
-import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.service.BookingExportService;
+import ru.practicum.shareit.booking.service.BookingImportService;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.bulkhead.Subsystem;
+import ru.practicum.shareit.exporting.ExportWriter;
+import ru.practicum.shareit.importing.ImportReader;
+import ru.practicum.shareit.importing.ImportResult;
+import ru.practicum.shareit.pagination.Cursor;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.InputStream;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
-import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+@Validated
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private static final String HEADER_X_SHARER_USER_ID = "X-Sharer-User-Id";
     private final BookingService bookingService;
+    private final BookingImportService bookingImportService;
+    private final BookingExportService bookingExportService;
+    private final ExportWriter exportWriter;
+    private final Bulkhead bulkhead;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingImportService bookingImportService,
+                             BookingExportService bookingExportService, ExportWriter exportWriter, Bulkhead bulkhead) {
         this.bookingService = bookingService;
+        this.bookingImportService = bookingImportService;
+        this.bookingExportService = bookingExportService;
+        this.exportWriter = exportWriter;
+        this.bulkhead = bulkhead;
     }
 
     @PostMapping
-    public Booking create(@Valid @RequestBody BookingDto booking, @RequestHeader(HEADER_X_SHARER_USER_ID) Long id) {
-        return bookingService.create(booking, id);
+    public CompletableFuture<BookingResponseDto> create(@Valid @RequestBody BookingDto booking,
+                                                        @RequestHeader(HEADER_X_SHARER_USER_ID) Long id) {
+        return bulkhead.supply(Subsystem.BOOKINGS,
+                () -> BookingMapper.bookingToResponseDto(bookingService.create(booking, id)));
+    }
+
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, ImportReader.APPLICATION_NDJSON_VALUE})
+    public DeferredResult<ImportResult> importBookings(InputStream body, @RequestHeader(HEADER_X_SHARER_USER_ID) Long id) {
+        return bulkhead.defer(Subsystem.IMPORTS, () -> bookingImportService.importBookings(body, id));
     }
 
     @PatchMapping("{bookingId}")
-    public Booking update(@Valid @PathVariable Long bookingId,
-                          @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId,
-                          @RequestParam Boolean approved) {
+    public CompletableFuture<BookingResponseDto> update(@Valid @PathVariable Long bookingId,
+                                                        @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId,
+                                                        @RequestParam Boolean approved) {
+
+        return bulkhead.supply(Subsystem.BOOKINGS,
+                () -> BookingMapper.bookingToResponseDto(bookingService.update(bookingId, userId, approved)));
+    }
 
-        return bookingService.update(bookingId, userId, approved);
+    @PatchMapping
+    public CompletableFuture<List<BookingDecisionResultDto>> updateAll(@Valid @RequestBody BookingDecisionDto decision,
+                                                                       @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
+        return bulkhead.supply(Subsystem.BOOKINGS, () -> bookingService.updateAll(decision, userId));
     }
 
     @GetMapping
-    public Collection<Booking> getAllBookingByUser(@Valid @RequestHeader("X-Sharer-User-Id") Long id,
-                                                   @RequestParam(defaultValue = "ALL") BookingStatus state,
-                                                   @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                   @Positive @RequestParam(defaultValue = "10") Integer size) {
-        return bookingService.getAllBookingByUser(id, state, from, size);
+    public CompletableFuture<ResponseEntity<List<BookingResponseDto>>> getAllBookingByUser(@Valid @RequestHeader("X-Sharer-User-Id") Long id,
+                                                                                           @RequestParam(defaultValue = "ALL") BookingStatus state,
+                                                                                           @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                                                           @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                                                           @RequestParam(required = false) String cursor) {
+        return bulkhead.supply(Subsystem.BOOKINGS, () -> Cursor.page(bookingService.getAllBookingByUser(id, state, from, size, cursor),
+                size, bookingService.countAllBookingByUser(id, state), BookingResponseDto::getStart, BookingResponseDto::getId));
     }
 
     @GetMapping("{bookingId}")
-    public Booking getBookingByUser(@Valid @PathVariable Long bookingId,
-                                    @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
+    public CompletableFuture<BookingResponseDto> getBookingByUser(@Valid @PathVariable Long bookingId,
+                                                                  @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
 
-        return bookingService.getBookingByUser(bookingId, userId);
+        return bulkhead.supply(Subsystem.BOOKINGS,
+                () -> BookingMapper.bookingToResponseDto(bookingService.getBookingByUser(bookingId, userId)));
     }
 
     @GetMapping("/owner")
-    public Collection<Booking> getAllBookingItemByUser(@Valid @RequestHeader("X-Sharer-User-Id") Long id,
-                                                       @RequestParam(defaultValue = "ALL") BookingStatus state,
-                                                       @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                       @Positive @RequestParam(defaultValue = "10") Integer size) {
-        return bookingService.getAllBookingItemByUser(id, state, from, size);
+    public CompletableFuture<ResponseEntity<List<BookingResponseDto>>> getAllBookingItemByUser(@Valid @RequestHeader("X-Sharer-User-Id") Long id,
+                                                                                               @RequestParam(defaultValue = "ALL") BookingStatus state,
+                                                                                               @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                                                               @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                                                               @RequestParam(required = false) String cursor) {
+        return bulkhead.supply(Subsystem.BOOKINGS, () -> Cursor.page(bookingService.getAllBookingItemByUser(id, state, from, size, cursor),
+                size, bookingService.countAllBookingItemByUser(id, state), BookingResponseDto::getStart, BookingResponseDto::getId));
+    }
+
+    @GetMapping("/owner/export")
+    public WebAsyncTask<Void> exportBookingItemByUser(@RequestHeader(HEADER_X_SHARER_USER_ID) Long id,
+                                                      HttpServletResponse response) {
+        return exportWriter.stream(response, bookingExportService.exportBookingItemByUser(id));
     }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionDto {
+    public static final int MAX_BOOKINGS = 500;
+
+    @NotEmpty(message = "Список бронирований не должен быть пустым")
+    @Size(max = MAX_BOOKINGS, message = "За один запрос можно обработать не больше " + MAX_BOOKINGS + " бронирований")
+    private List<@NotNull Long> bookingIds;
+    @NotNull(message = "Решение по бронированиям не должно быть пустым")
+    private Boolean approved;
+}
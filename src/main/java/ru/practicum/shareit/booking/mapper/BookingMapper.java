@@ -3,6 +3,8 @@ package ru.practicum.shareit.booking.mapper;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingDataDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.item.entity.Item;
@@ -22,6 +24,18 @@ public class BookingMapper {
                 BookingStatus.WAITING);
     }
 
+    public static BookingResponseDto bookingToResponseDto(Booking booking) {
+        return new BookingResponseDto(
+                booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getStatus(),
+                booking.getItem().getId(),
+                booking.getItem().getName(),
+                booking.getBooker().getId()
+        );
+    }
+
     public static BookingDataDto bookingDtoNoItem(Booking booking) {
         return new BookingDataDto(
                 booking.getId(),
@@ -30,4 +44,13 @@ public class BookingMapper {
                 booking.getBooker().getId()
         );
     }
+
+    public static BookingDataDto bookingViewToDataDto(BookingShortView booking) {
+        return booking == null ? null : new BookingDataDto(
+                booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getBookerId()
+        );
+    }
 }
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.importing.PooledIds;
+
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Пакетная запись бронирований через JDBC для массовой загрузки. Все бронирования создаются в статусе WAITING,
+ * выданные id записываются в переданные DTO.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledIds pooledIds;
+
+    public void insertAll(List<BookingDto> bookings, Long bookerId) {
+        Iterator<Long> ids = pooledIds.next(Booking.class, bookings.size()).iterator();
+        jdbcTemplate.batchUpdate("INSERT INTO booking (id, start_date, end_date, item_id, booker_id, booking_status) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", bookings, bookings.size(), (ps, booking) -> {
+                    booking.setId(ids.next());
+                    ps.setLong(1, booking.getId());
+                    ps.setTimestamp(2, Timestamp.valueOf(booking.getStart()));
+                    ps.setTimestamp(3, Timestamp.valueOf(booking.getEnd()));
+                    ps.setLong(4, booking.getItemId());
+                    ps.setLong(5, bookerId);
+                    ps.setString(6, BookingStatus.WAITING.name());
+                });
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.exporting.ExportWriter;
+
+import java.util.function.Consumer;
+
+/**
+ * Потоковое чтение бронирований через JDBC для выгрузки: строки не попадают в контекст персистентности.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingExportRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public void forEachByOwnerId(Long ownerId, Consumer<BookingResponseDto> action) {
+        jdbcTemplate.query("SELECT b.id, b.start_date, b.end_date, b.booking_status, b.item_id, i.name_item, b.booker_id "
+                + "FROM booking b JOIN items i ON i.id = b.item_id WHERE i.user_id = ? ORDER BY b.id", ps -> {
+                    ps.setFetchSize(ExportWriter.FETCH_SIZE);
+                    ps.setLong(1, ownerId);
+                }, (RowCallbackHandler) rs -> action.accept(new BookingResponseDto(rs.getLong("id"),
+                        rs.getTimestamp("start_date").toLocalDateTime(),
+                        rs.getTimestamp("end_date").toLocalDateTime(),
+                        BookingStatus.valueOf(rs.getString("booking_status")),
+                        rs.getLong("item_id"), rs.getString("name_item"), rs.getLong("booker_id"))));
+    }
+}
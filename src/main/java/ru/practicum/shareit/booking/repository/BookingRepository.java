@@ -1,21 +1,181 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.booking.entity.Booking;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBookerIdOrderByStartDesc(Long id, Pageable pageable);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findByItem_User_IdOrderByStartDesc(Long id, Pageable pageable);
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findByIdIn(Collection<Long> ids);
 
-    List<Booking> findByItem_User_IdOrderByEndDesc(Long id);
+    String BOOKING_RESPONSE = "SELECT new ru.practicum.shareit.booking.dto.BookingResponseDto("
+            + "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) FROM Booking b JOIN b.item i ";
 
+    String BY_BOOKER = BOOKING_RESPONSE + "WHERE b.booker.id = :id ";
+
+    String BY_OWNER = BOOKING_RESPONSE + "WHERE i.user.id = :id ";
+
+    String KEYSET = "AND b.start <= :cursorStart AND (b.start < :cursorStart OR b.id < :cursorId) "
+            + "ORDER BY b.start DESC, b.id DESC";
+
+    @Query(BY_BOOKER + KEYSET)
+    List<BookingResponseDto> findByBookerIdOrderByStartDesc(@Param("id") Long id,
+                                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                                            @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query(BY_BOOKER + "AND b.start < :time AND b.end > :time " + KEYSET)
+    List<BookingResponseDto> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(@Param("id") Long id,
+                                                                                     @Param("time") LocalDateTime time,
+                                                                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                                                                     @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query(BY_BOOKER + "AND b.end < :time " + KEYSET)
+    List<BookingResponseDto> findByBookerIdAndEndBeforeOrderByStartDesc(@Param("id") Long id,
+                                                                        @Param("time") LocalDateTime time,
+                                                                        @Param("cursorStart") LocalDateTime cursorStart,
+                                                                        @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query(BY_BOOKER + "AND b.start > :time " + KEYSET)
+    List<BookingResponseDto> findByBookerIdAndStartAfterOrderByStartDesc(@Param("id") Long id,
+                                                                         @Param("time") LocalDateTime time,
+                                                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                                                         @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query(BY_BOOKER + "AND b.status = :status " + KEYSET)
+    List<BookingResponseDto> findByBookerIdAndStatusOrderByStartDesc(@Param("id") Long id,
+                                                                     @Param("status") BookingStatus status,
+                                                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                                                     @Param("cursorId") Long cursorId, Pageable pageable);
+
+    boolean existsByBookerId(Long id);
+
+    long countByBookerId(Long id);
+
+    long countByBookerIdAndStartBeforeAndEndAfter(Long id, LocalDateTime start, LocalDateTime end);
+
+    long countByBookerIdAndEndBefore(Long id, LocalDateTime time);
+
+    long countByBookerIdAndStartAfter(Long id, LocalDateTime time);
+
+    long countByBookerIdAndStatus(Long id, BookingStatus status);
+
+    @Query(BY_OWNER + KEYSET)
+    List<BookingResponseDto> findByItem_User_IdOrderByStartDesc(@Param("id") Long id,
+                                                                @Param("cursorStart") LocalDateTime cursorStart,
+                                                                @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query(BY_OWNER + "AND b.start < :time AND b.end > :time " + KEYSET)
+    List<BookingResponseDto> findByItem_User_IdAndStartBeforeAndEndAfterOrderByStartDesc(@Param("id") Long id,
+                                                                                         @Param("time") LocalDateTime time,
+                                                                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                                                                         @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query(BY_OWNER + "AND b.end < :time " + KEYSET)
+    List<BookingResponseDto> findByItem_User_IdAndEndBeforeOrderByStartDesc(@Param("id") Long id,
+                                                                            @Param("time") LocalDateTime time,
+                                                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                                                            @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query(BY_OWNER + "AND b.start > :time " + KEYSET)
+    List<BookingResponseDto> findByItem_User_IdAndStartAfterOrderByStartDesc(@Param("id") Long id,
+                                                                             @Param("time") LocalDateTime time,
+                                                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                                                             @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query(BY_OWNER + "AND b.status = :status " + KEYSET)
+    List<BookingResponseDto> findByItem_User_IdAndStatusOrderByStartDesc(@Param("id") Long id,
+                                                                         @Param("status") BookingStatus status,
+                                                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                                                         @Param("cursorId") Long cursorId, Pageable pageable);
+
+    boolean existsByItem_User_Id(Long id);
+
+    long countByItem_User_Id(Long id);
+
+    long countByItem_User_IdAndStartBeforeAndEndAfter(Long id, LocalDateTime start, LocalDateTime end);
+
+    long countByItem_User_IdAndEndBefore(Long id, LocalDateTime time);
+
+    long countByItem_User_IdAndStartAfter(Long id, LocalDateTime time);
+
+    long countByItem_User_IdAndStatus(Long id, BookingStatus status);
+
+    @Query(value = "SELECT t.id AS \"id\", t.start_date AS \"start\", t.end_date AS \"end\", "
+            + "t.booker_id AS \"bookerId\", t.item_id AS \"itemId\", t.is_last AS \"last\" "
+            + "FROM (SELECT b.id, b.start_date, b.end_date, b.booker_id, b.item_id, b.start_date < :time AS is_last, "
+            + "ROW_NUMBER() OVER (PARTITION BY b.item_id, b.start_date < :time "
+            + "ORDER BY CASE WHEN b.start_date < :time THEN b.end_date END DESC, b.start_date, b.id) AS rn "
+            + "FROM booking b JOIN items i ON i.id = b.item_id WHERE i.user_id = :ownerId) t "
+            + "WHERE t.rn = 1", nativeQuery = true)
+    List<BookingShortView> findLastAndNextByOwnerId(@Param("ownerId") Long ownerId, @Param("time") LocalDateTime time);
+
+    String ITEM_BOOKING = "SELECT b.id AS \"id\", b.start_date AS \"start\", b.end_date AS \"end\", "
+            + "b.booker_id AS \"bookerId\", b.item_id AS \"itemId\", ";
+
+    /**
+     * Последнее начавшееся бронирование вещи: один проход по idx_booking_item_end до первой подходящей строки.
+     */
+    @Query(value = ITEM_BOOKING + "TRUE AS \"last\" FROM booking b WHERE b.item_id = :itemId AND b.start_date < :time "
+            + "ORDER BY b.end_date DESC, b.start_date, b.id LIMIT 1", nativeQuery = true)
+    Optional<BookingShortView> findLastByItemId(@Param("itemId") Long itemId, @Param("time") LocalDateTime time);
+
+    /**
+     * Ближайшее будущее бронирование вещи: одна строка из idx_booking_item_start.
+     */
+    @Query(value = ITEM_BOOKING + "FALSE AS \"last\" FROM booking b WHERE b.item_id = :itemId AND b.start_date >= :time "
+            + "ORDER BY b.start_date, b.id LIMIT 1", nativeQuery = true)
+    Optional<BookingShortView> findNextByItemId(@Param("itemId") Long itemId, @Param("time") LocalDateTime time);
+
+    String BOOKING_POINTERS = "SELECT b.id AS \"id\", b.start_date AS \"start\", b.end_date AS \"end\", "
+            + "b.booker_id AS \"bookerId\", b.item_id AS \"itemId\", "
+            + "CASE WHEN b.id = i.last_booking_id THEN TRUE ELSE FALSE END AS \"last\" "
+            + "FROM items i JOIN booking b ON b.id = i.last_booking_id OR b.id = i.next_booking_id ";
+
+    @Query(value = BOOKING_POINTERS + "WHERE i.id = :itemId", nativeQuery = true)
+    List<BookingShortView> findBookingPointersByItemId(@Param("itemId") Long itemId);
+
+    @Query(value = BOOKING_POINTERS + "WHERE i.user_id = :ownerId", nativeQuery = true)
+    List<BookingShortView> findBookingPointersByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN ?1 AND b.status = ?2 AND b.end > ?3")
+    List<Booking> findByItemIdInAndStatusAndEndAfter(Collection<Long> itemIds, BookingStatus status, LocalDateTime time);
+
+    Optional<Booking> findFirstByItem_IdAndStatusAndStartBeforeOrderByStartDesc(Long itemId, BookingStatus status, LocalDateTime end);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     List<Booking> findByItem_IdOrderByEndDesc(Long itemId);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     List<Booking> findByBooker_IdAndItem_Id(Long userId, Long itemId);
+
+    /**
+     * Меняет статус, только если бронирование ещё ждёт решения. 0 означает, что решение уже принял другой запрос.
+     * Контекст персистентности очищается: прочитанное ранее бронирование устарело вместе со своей версией.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 "
+            + "WHERE b.id = :id AND b.status = ru.practicum.shareit.booking.dto.BookingStatus.WAITING")
+    int updateStatusIfWaiting(@Param("id") Long id, @Param("status") BookingStatus status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 "
+            + "WHERE b.id IN :ids AND b.status = ru.practicum.shareit.booking.dto.BookingStatus.WAITING")
+    int updateStatusIfWaitingIn(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
 }
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.repository.BookingExportRepository;
+import ru.practicum.shareit.exporting.ExportWriter;
+import ru.practicum.shareit.user.service.UserService;
+
+/**
+ * Выгрузка всех бронирований вещей владельца одним потоком вместо постраничного обхода /bookings/owner.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingExportService {
+    private final UserService userService;
+    private final BookingExportRepository bookingExportRepository;
+    private final ExportWriter exportWriter;
+
+    /**
+     * Владелец проверяется сразу, чтобы ошибка вернулась обычным ответом, а не оборвала начатый поток.
+     */
+    public StreamingResponseBody exportBookingItemByUser(Long ownerId) {
+        log.debug("Выгрузка бронирований вещей владельца {}", ownerId);
+        userService.getById(ownerId);
+        return exportWriter.<BookingResponseDto>write(rows -> bookingExportRepository.forEachByOwnerId(ownerId, rows));
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.repository.BookingBatchRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.importing.ImportReader;
+import ru.practicum.shareit.importing.ImportResult;
+import ru.practicum.shareit.importing.ImportRow;
+import ru.practicum.shareit.importing.ImportWriter;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Массовая загрузка бронирований одного арендатора. Проверки повторяют {@link BookingService#create},
+ * но вещи и одобренные бронирования для порции загружаются двумя запросами.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingImportService {
+    private final ImportReader importReader;
+    private final UserService userService;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingBatchRepository bookingBatchRepository;
+    private final ImportWriter importWriter;
+    private final ItemViewCache itemViewCache;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImportResult importBookings(InputStream body, Long bookerId) throws IOException {
+        log.debug("Массовая загрузка бронирований пользователя {}", bookerId);
+        userService.getById(bookerId);
+        ImportResult result = importReader.read(body, BookingDto.class,
+                (rows, r) -> transactionTemplate.executeWithoutResult(status -> importChunk(rows, r, bookerId)));
+        log.debug("Загружено бронирований {} из {}", result.getImported(), result.getTotal());
+        return result;
+    }
+
+    private void importChunk(List<ImportRow<BookingDto>> rows, ImportResult result, Long bookerId) {
+        LocalDateTime time = LocalDateTime.now();
+        Set<Long> itemIds = rows.stream()
+                .map(r -> r.getValue().getItemId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemIds.isEmpty() ? Map.of() : itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<Booking>> approved = itemIds.isEmpty() ? Map.of() : bookingRepository
+                .findByItemIdInAndStatusAndEndAfter(itemIds, BookingStatus.APPROVED, time).stream()
+                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+
+        List<ImportRow<BookingDto>> bookings = new ArrayList<>();
+        for (ImportRow<BookingDto> row : rows) {
+            BookingDto booking = row.getValue();
+            String error = validate(booking, items.get(booking.getItemId()),
+                    approved.getOrDefault(booking.getItemId(), List.of()), bookerId, time);
+            if (error != null) {
+                result.reject(row.getRow(), error);
+            } else {
+                bookings.add(row);
+            }
+        }
+        if (!bookings.isEmpty()) {
+            List<BookingDto> written = importWriter.write(bookings, result,
+                    b -> bookingBatchRepository.insertAll(b, bookerId),
+                    b -> String.format("Бронирование предмета %d не записано: конфликт ключа", b.getItemId()));
+            moveNextBookings(written);
+        }
+    }
+
+    /**
+     * Переводит ссылку на следующее бронирование каждой вещи на самое раннее из записанных. Вещи обходятся
+     * по возрастанию id, чтобы параллельные загрузки брали блокировки строк в одном порядке.
+     */
+    private void moveNextBookings(List<BookingDto> written) {
+        Map<Long, BookingDto> earliest = written.stream()
+                .collect(Collectors.toMap(BookingDto::getItemId, Function.identity(), BinaryOperator.minBy(
+                        Comparator.comparing(BookingDto::getStart).thenComparing(BookingDto::getId)), TreeMap::new));
+        earliest.values().forEach(b -> itemRepository.moveNextBooking(b.getItemId(), b.getId(), b.getStart()));
+        earliest.keySet().forEach(itemViewCache::evict);
+    }
+
+    private String validate(BookingDto booking, Item item, List<Booking> approved, Long bookerId,
+                            LocalDateTime time) {
+        if (item == null) {
+            return String.format("Предмет с id %d не существует", booking.getItemId());
+        }
+        if (booking.getStart() == null || booking.getEnd() == null || !booking.getStart().isAfter(time)
+                || !booking.getEnd().isAfter(booking.getStart()) || !item.getAvailable()) {
+            return String.format("Предмет %d недоступен", item.getId());
+        }
+        if (item.getUser().getId().equals(bookerId)) {
+            return "Невозможно арендовать у самого себя";
+        }
+        boolean overlapping = approved.stream()
+                .anyMatch(b -> b.getStart().isBefore(booking.getEnd()) && b.getEnd().isAfter(booking.getStart()));
+        if (overlapping) {
+            return String.format(BookingService.ALREADY_BOOKED, item.getId());
+        }
+        return importReader.violations(booking);
+    }
+}
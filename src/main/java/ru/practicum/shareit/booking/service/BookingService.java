@@ -1,92 +1,227 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConcurrentUpdateException;
 import ru.practicum.shareit.exception.EmptyResultSet;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnknownState;
 import ru.practicum.shareit.exception.ValidationItemException;
 import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemBatchRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.metrics.MetricsConfig;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.OffsetPageable;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 @Slf4j
 public class BookingService {
     private static final String WRONG_PAGE_COUNT_OR_ITEM_AMOUNT = "количество страниц %s или предметов %s указано неверно";
+    static final String ALREADY_BOOKED = "Предмет %d уже забронирован на это время";
+    private static final String ALREADY_PROCESSED = "Обновление запроса %d невозможно, запрос обработан";
+    private static final String NO_BOOKING = "Обновление запроса %d невозможно, нет бронирования.";
+    private static final String NO_ACCESS = "Обновление запроса %d невозможно, нет доступа.";
+    static final int MAX_UPDATE_ATTEMPTS = 3;
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
+    private final ItemBatchRepository itemBatchRepository;
     private final UserService userService;
+    private final ItemViewCache itemViewCache;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public Booking create(BookingDto bookingDto, Long id) {
-        Item item;
         LocalDateTime time = LocalDateTime.now();
-
-        if (itemRepository.findById(bookingDto.getItemId()).isPresent()) {
-            item = itemRepository.findById(bookingDto.getItemId()).get();
-        } else {
-            log.debug("Предмет не существует");
-            throw new NotFoundException(String.format("Предмет с id %d не существует", id));
-        }
+        Item item = itemRepository.findById(bookingDto.getItemId())
+                .orElseThrow(() -> new NotFoundException(String.format("Предмет с id %d не существует", bookingDto.getItemId())));
 
         Booking booking = BookingMapper.toDtoNewBooking(bookingDto, userService.getById(id), item, time);
+        booking.setId(null);
         if (booking.getStart().equals(time) || booking.getEnd().equals(time) || !item.getAvailable() || booking.getEnd().isBefore(booking.getStart()) || booking.getStart().equals(booking.getEnd()) || booking.getStart().isBefore(time)) {
             throw new ValidationItemException(String.format("Предмет %d недоступен", item.getId()));
         } else if (item.getUser().getId().equals(id)) {
             throw new NotFoundException("Невозможно арендовать у самого себя");
+        } else if (isOverlappingApproved(item.getId(), booking.getStart(), booking.getEnd())) {
+            throw new ValidationItemException(String.format(ALREADY_BOOKED, item.getId()));
         } else {
-            return bookingRepository.save(booking);
+            Booking saved = bookingRepository.save(booking);
+            itemRepository.moveNextBooking(item.getId(), saved.getId(), saved.getStart());
+            itemViewCache.evict(item.getId());
+            return saved;
         }
     }
 
-    @Transactional
+    /**
+     * Решение по бронированию принимается без блокировок строк. Статус меняется условным UPDATE только из WAITING,
+     * а одобрение ещё и увеличивает версию вещи: два одобрения одной вещи конфликтуют, даже если касаются разных
+     * бронирований. Проигравшее одобрение повторяется целиком не более {@value MAX_UPDATE_ATTEMPTS} раз
+     * и на повторе уже видит победителя в проверке пересечений.
+     */
     public Booking update(Long bookingId, Long userId, Boolean approved) {
-        if (bookingRepository.findById(bookingId).isPresent()) {
-            Booking bookingUpdate = bookingRepository.findById(bookingId).get();
-            Long userBookingOwner = bookingUpdate.getItem().getUser().getId();
-            if (userBookingOwner.equals(userId) && bookingUpdate.getStatus() == BookingStatus.WAITING) {
-                if (approved) {
-                    bookingUpdate.setStatus(BookingStatus.APPROVED);
-                } else {
-                    bookingUpdate.setStatus(BookingStatus.REJECTED);
+        return withRetries(String.format("Обновление запроса %d не удалось из-за параллельных изменений", bookingId),
+                () -> decide(bookingId, userId, approved));
+    }
+
+    /**
+     * Массовый вариант {@link #update}: бронирования и их вещи читаются одним запросом, статус меняется одним
+     * UPDATE для всех прошедших проверки. Отказы не прерывают пачку, а возвращаются в итоге по каждому id
+     * в порядке запроса. Конфликт с параллельной транзакцией повторяет всю пачку.
+     */
+    public List<BookingDecisionResultDto> updateAll(BookingDecisionDto decision, Long userId) {
+        List<Long> bookingIds = new ArrayList<>(new LinkedHashSet<>(decision.getBookingIds()));
+        return withRetries("Обновление запросов не удалось из-за параллельных изменений",
+                () -> decideAll(bookingIds, userId, decision.getApproved()));
+    }
+
+    private <T> T withRetries(String conflictMessage, Supplier<T> decision) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> decision.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw new ConcurrentUpdateException(conflictMessage);
                 }
-                return bookingRepository.save(bookingUpdate);
-            } else if (bookingUpdate.getStatus() != (BookingStatus.WAITING)) {
-                throw new ValidationItemException(String.format("Обновление запроса %d невозможно, запрос обработан", bookingId));
-            } else {
-                throw new NotFoundException(String.format("Обновление запроса %d невозможно, нет доступа.", bookingId));
+                log.debug("Конфликт версий: {}, попытка {}", e.getMessage(), attempt);
             }
+        }
+    }
+
+    private Booking decide(Long bookingId, Long userId, Boolean approved) {
+        Booking bookingUpdate = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new NotFoundException(String.format(NO_BOOKING, bookingId)));
+        Item item = bookingUpdate.getItem();
+        if (item.getUser().getId().equals(userId) && bookingUpdate.getStatus() == BookingStatus.WAITING) {
+            BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            if (approved) {
+                if (isOverlappingApproved(item.getId(), bookingUpdate.getStart(), bookingUpdate.getEnd())) {
+                    throw new ValidationItemException(String.format(ALREADY_BOOKED, item.getId()));
+                }
+                if (itemRepository.incrementVersion(item.getId(), item.getVersion()) == 0) {
+                    throw new OptimisticLockingFailureException(String.format("Предмет %d изменён параллельно", item.getId()));
+                }
+            }
+            if (bookingRepository.updateStatusIfWaiting(bookingId, status) == 0) {
+                throw new ValidationItemException(String.format(ALREADY_PROCESSED, bookingId));
+            }
+            itemViewCache.evict(item.getId());
+            bookingUpdate.setStatus(status);
+            bookingUpdate.setVersion(bookingUpdate.getVersion() + 1);
+            return bookingUpdate;
+        } else if (bookingUpdate.getStatus() != (BookingStatus.WAITING)) {
+            throw new ValidationItemException(String.format(ALREADY_PROCESSED, bookingId));
         } else {
-            throw new NotFoundException(String.format("Обновление запроса %d невозможно, нет бронирования.", bookingId));
+            throw new NotFoundException(String.format(NO_ACCESS, bookingId));
+        }
+    }
+
+    private List<BookingDecisionResultDto> decideAll(List<Long> bookingIds, Long userId, boolean approved) {
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Map<Long, Booking> bookings = bookingRepository.findByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Map<Long, BookingDecisionResultDto> results = new HashMap<>();
+        List<Booking> waiting = new ArrayList<>();
+        for (Long id : bookingIds) {
+            Booking booking = bookings.get(id);
+            if (booking == null) {
+                results.put(id, new BookingDecisionResultDto(id, null, String.format(NO_BOOKING, id)));
+            } else if (!booking.getItem().getUser().getId().equals(userId)) {
+                results.put(id, new BookingDecisionResultDto(id, null, String.format(NO_ACCESS, id)));
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                results.put(id, new BookingDecisionResultDto(id, booking.getStatus(), String.format(ALREADY_PROCESSED, id)));
+            } else {
+                waiting.add(booking);
+            }
+        }
+        List<Booking> accepted = approved ? withoutOverlaps(waiting, results) : waiting;
+        if (!accepted.isEmpty()) {
+            if (approved && !itemBatchRepository.incrementVersions(accepted.stream()
+                    .collect(Collectors.toMap(b -> b.getItem().getId(), Booking::getItem, (a, b) -> a)).values())) {
+                throw new OptimisticLockingFailureException("Предметы пачки изменены параллельно");
+            }
+            if (bookingRepository.updateStatusIfWaitingIn(accepted.stream().map(Booking::getId)
+                    .collect(Collectors.toList()), status) != accepted.size()) {
+                throw new OptimisticLockingFailureException("Бронирования пачки изменены параллельно");
+            }
+            for (Booking booking : accepted) {
+                results.put(booking.getId(), new BookingDecisionResultDto(booking.getId(), status, null));
+                itemViewCache.evict(booking.getItem().getId());
+            }
         }
+        return bookingIds.stream().map(results::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Одобряет ожидающие бронирования по порядку начала: каждое сверяется с уже одобренными бронированиями вещи
+     * и с одобренными раньше в этой же пачке. Одобренные бронирования всех вещей читаются одним запросом.
+     */
+    private List<Booking> withoutOverlaps(List<Booking> waiting, Map<Long, BookingDecisionResultDto> results) {
+        if (waiting.isEmpty()) {
+            return waiting;
+        }
+        waiting.sort(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId));
+        Set<Long> itemIds = waiting.stream().map(b -> b.getItem().getId()).collect(Collectors.toSet());
+        Map<Long, List<Booking>> taken = bookingRepository
+                .findByItemIdInAndStatusAndEndAfter(itemIds, BookingStatus.APPROVED, waiting.get(0).getStart()).stream()
+                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+        List<Booking> accepted = new ArrayList<>();
+        for (Booking booking : waiting) {
+            Long itemId = booking.getItem().getId();
+            List<Booking> itemTaken = taken.computeIfAbsent(itemId, id -> new ArrayList<>());
+            boolean overlapping = itemTaken.stream()
+                    .anyMatch(b -> b.getStart().isBefore(booking.getEnd()) && b.getEnd().isAfter(booking.getStart()));
+            if (overlapping) {
+                results.put(booking.getId(), new BookingDecisionResultDto(booking.getId(), BookingStatus.WAITING,
+                        String.format(ALREADY_BOOKED, itemId)));
+            } else {
+                itemTaken.add(booking);
+                accepted.add(booking);
+            }
+        }
+        return accepted;
     }
 
     @Transactional(readOnly = true)
-    public Collection<Booking> getAllBookingByUser(Long id, BookingStatus state, Integer from, Integer size) {
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
+    public List<BookingResponseDto> getAllBookingByUser(Long id, BookingStatus state, Integer from, Integer size, String cursor) {
         if (from >= 0 && size > 0) {
+            Cursor position = Cursor.decode(cursor);
+            Pageable pageable = OffsetPageable.of(cursor == null ? from : 0, size);
             LocalDateTime time = LocalDateTime.now();
-            Collection<Booking> collectionBooking = bookingRepository.findByBookerIdOrderByStartDesc(id, pageable);
-            if (collectionBooking.isEmpty()) {
+            List<BookingResponseDto> bookings = getAllBookingByBookerId(id, state, time, position, pageable);
+            if (bookings.isEmpty() && !bookingRepository.existsByBookerId(id)) {
                 throw new EmptyResultSet("Бронирований пользователя не существует");
             } else {
-                return getAllBookingByBookerId(state, collectionBooking, time);
+                return bookings;
             }
         } else {
             throw new ValidationItemException(String.format(WRONG_PAGE_COUNT_OR_ITEM_AMOUNT, from, size));
@@ -95,28 +230,26 @@ public class BookingService {
 
     @Transactional(readOnly = true)
     public Booking getBookingByUser(Long bookingId, Long userId) {
-        if (bookingRepository.findById(bookingId).isPresent()) {
-            Booking booking = bookingRepository.findById(bookingId).get();
-            if (booking.getBooker().getId().equals(userId) || booking.getItem().getUser().getId().equals(userId)) {
-                return booking;
-            } else {
-                throw new NotFoundException("Ошибка доступа к получению данных");
-            }
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Запрос не существует"));
+        if (booking.getBooker().getId().equals(userId) || booking.getItem().getUser().getId().equals(userId)) {
+            return booking;
         } else {
-            throw new NotFoundException("Запрос не существует");
+            throw new NotFoundException("Ошибка доступа к получению данных");
         }
     }
 
     @Transactional(readOnly = true)
-    public Collection<Booking> getAllBookingItemByUser(Long id, BookingStatus state, Integer from, Integer size) {
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
+    public List<BookingResponseDto> getAllBookingItemByUser(Long id, BookingStatus state, Integer from, Integer size, String cursor) {
         if (from >= 0 && size > 0) {
+            Cursor position = Cursor.decode(cursor);
+            Pageable pageable = OffsetPageable.of(cursor == null ? from : 0, size);
             LocalDateTime time = LocalDateTime.now();
-            Collection<Booking> collectionBooking = bookingRepository.findByItem_User_IdOrderByStartDesc(id, pageable);
-            if (collectionBooking.isEmpty()) {
+            List<BookingResponseDto> bookings = getAllBookingByOwnerId(id, state, time, position, pageable);
+            if (bookings.isEmpty() && !bookingRepository.existsByItem_User_Id(id)) {
                 throw new EmptyResultSet("Ошибка доступа к получению данных, пользователь не существует");
             } else {
-                return getAllBookingByBookerId(state, collectionBooking, time);
+                return bookings;
             }
         } else {
             throw new ValidationItemException(String.format(WRONG_PAGE_COUNT_OR_ITEM_AMOUNT, from, size));
@@ -124,20 +257,95 @@ public class BookingService {
 
     }
 
-    private Collection<Booking> getAllBookingByBookerId(BookingStatus state, Collection<Booking> booking, LocalDateTime time) {
+    /**
+     * Число бронирований пользователя в состоянии {@code state} для заголовка X-Total-Count.
+     */
+    @Transactional(readOnly = true)
+    public long countAllBookingByUser(Long id, BookingStatus state) {
+        LocalDateTime time = LocalDateTime.now();
+        switch (state) {
+            case ALL:
+                return bookingRepository.countByBookerId(id);
+            case CURRENT:
+                return bookingRepository.countByBookerIdAndStartBeforeAndEndAfter(id, time, time);
+            case PAST:
+                return bookingRepository.countByBookerIdAndEndBefore(id, time);
+            case FUTURE:
+                return bookingRepository.countByBookerIdAndStartAfter(id, time);
+            case WAITING:
+            case REJECTED:
+                return bookingRepository.countByBookerIdAndStatus(id, state);
+            default:
+                throw new UnknownState(String.format("Unknown state: %s", state));
+        }
+    }
+
+    /**
+     * Число бронирований вещей владельца в состоянии {@code state} для заголовка X-Total-Count.
+     */
+    @Transactional(readOnly = true)
+    public long countAllBookingItemByUser(Long id, BookingStatus state) {
+        LocalDateTime time = LocalDateTime.now();
+        switch (state) {
+            case ALL:
+                return bookingRepository.countByItem_User_Id(id);
+            case CURRENT:
+                return bookingRepository.countByItem_User_IdAndStartBeforeAndEndAfter(id, time, time);
+            case PAST:
+                return bookingRepository.countByItem_User_IdAndEndBefore(id, time);
+            case FUTURE:
+                return bookingRepository.countByItem_User_IdAndStartAfter(id, time);
+            case WAITING:
+            case REJECTED:
+                return bookingRepository.countByItem_User_IdAndStatus(id, state);
+            default:
+                throw new UnknownState(String.format("Unknown state: %s", state));
+        }
+    }
+
+    /**
+     * Подтверждённые бронирования одной вещи не пересекаются, поэтому достаточно проверить
+     * последнее из них, начавшееся раньше конца запрошенного интервала.
+     */
+    private boolean isOverlappingApproved(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.findFirstByItem_IdAndStatusAndStartBeforeOrderByStartDesc(itemId, BookingStatus.APPROVED, end)
+                .filter(b -> b.getEnd().isAfter(start))
+                .isPresent();
+    }
+
+    private List<BookingResponseDto> getAllBookingByBookerId(Long id, BookingStatus state, LocalDateTime time,
+                                                             Cursor cursor, Pageable pageable) {
+        switch (state) {
+            case ALL:
+                return bookingRepository.findByBookerIdOrderByStartDesc(id, cursor.getKey(), cursor.getId(), pageable);
+            case CURRENT:
+                return bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(id, time, cursor.getKey(), cursor.getId(), pageable);
+            case PAST:
+                return bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(id, time, cursor.getKey(), cursor.getId(), pageable);
+            case FUTURE:
+                return bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(id, time, cursor.getKey(), cursor.getId(), pageable);
+            case WAITING:
+            case REJECTED:
+                return bookingRepository.findByBookerIdAndStatusOrderByStartDesc(id, state, cursor.getKey(), cursor.getId(), pageable);
+            default:
+                throw new UnknownState(String.format("Unknown state: %s", state));
+        }
+    }
+
+    private List<BookingResponseDto> getAllBookingByOwnerId(Long id, BookingStatus state, LocalDateTime time,
+                                                            Cursor cursor, Pageable pageable) {
         switch (state) {
             case ALL:
-                return booking;
+                return bookingRepository.findByItem_User_IdOrderByStartDesc(id, cursor.getKey(), cursor.getId(), pageable);
             case CURRENT:
-                return booking.stream().filter(p -> time.isAfter(p.getStart()) && time.isBefore(p.getEnd())).collect(Collectors.toList());
+                return bookingRepository.findByItem_User_IdAndStartBeforeAndEndAfterOrderByStartDesc(id, time, cursor.getKey(), cursor.getId(), pageable);
             case PAST:
-                return booking.stream().filter(p -> time.isAfter(p.getEnd())).collect(Collectors.toList());
+                return bookingRepository.findByItem_User_IdAndEndBeforeOrderByStartDesc(id, time, cursor.getKey(), cursor.getId(), pageable);
             case FUTURE:
-                return booking.stream().filter(p -> time.isBefore(p.getStart())).collect(Collectors.toList());
+                return bookingRepository.findByItem_User_IdAndStartAfterOrderByStartDesc(id, time, cursor.getKey(), cursor.getId(), pageable);
             case WAITING:
-                return booking.stream().filter(p -> p.getStatus() == BookingStatus.WAITING).collect(Collectors.toList());
             case REJECTED:
-                return booking.stream().filter(p -> p.getStatus() == BookingStatus.REJECTED).collect(Collectors.toList());
+                return bookingRepository.findByItem_User_IdAndStatusOrderByStartDesc(id, state, cursor.getKey(), cursor.getId(), pageable);
             default:
                 throw new UnknownState(String.format("Unknown state: %s", state));
         }
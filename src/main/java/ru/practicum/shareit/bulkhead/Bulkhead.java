@@ -0,0 +1,156 @@
+package ru.practicum.shareit.bulkhead;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченные пулы потоков по подсистемам. Контроллер отдаёт работу в пул своей подсистемы и освобождает
+ * поток Tomcat. Размер пула и очереди задаются свойствами {@code shareit.bulkhead.<подсистема>.threads}
+ * и {@code .queue-capacity}. Если есть бин {@link BulkheadThreadFactory}, пула нет: каждая задача получает
+ * свой поток из фабрики, а {@code .threads} ограничивает число одновременно выполняемых задач.
+ * Когда очередь заполнена, запрос сразу отклоняется, а не копится в памяти. Задача, простоявшая в очереди
+ * дольше {@code .queue-timeout-ms}, тоже отклоняется без выполнения: клиент к этому времени, скорее всего,
+ * уже не ждёт ответа. Долгие задачи подсистемы ждут ответа {@code .request-timeout-ms} вместо общего
+ * {@code spring.mvc.async.request-timeout}.
+ * На время задачи к её потоку привязывается EntityManager, как это делает open-in-view в потоке запроса,
+ * поэтому маппинг ленивых связей в контроллерах работает так же, как при синхронной обработке.
+ */
+@Component
+public class Bulkhead implements MeterBinder, DisposableBean {
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 50;
+    private static final long DEFAULT_QUEUE_TIMEOUT_MS = 10_000;
+    private final Map<Subsystem, BulkheadLane> lanes = new EnumMap<>(Subsystem.class);
+    private final Map<Subsystem, Long> queueTimeouts = new EnumMap<>(Subsystem.class);
+    private final Map<Subsystem, Long> requestTimeouts = new EnumMap<>(Subsystem.class);
+    private final Map<Subsystem, AtomicLong> rejected = new EnumMap<>(Subsystem.class);
+    private final EntityManagerFactory entityManagerFactory;
+
+    public Bulkhead(Environment environment, ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                    ObjectProvider<BulkheadThreadFactory> threadFactory) {
+        this.entityManagerFactory = entityManagerFactory.getIfAvailable();
+        BulkheadThreadFactory factory = threadFactory.getIfAvailable();
+        for (Subsystem subsystem : Subsystem.values()) {
+            String prefix = "shareit.bulkhead." + subsystem.propertyName();
+            int threads = environment.getProperty(prefix + ".threads", Integer.class, DEFAULT_THREADS);
+            int queueCapacity = environment.getProperty(prefix + ".queue-capacity", Integer.class,
+                    DEFAULT_QUEUE_CAPACITY);
+            lanes.put(subsystem, factory == null
+                    ? new PooledLane(subsystem.propertyName(), threads, queueCapacity)
+                    : new ThreadPerTaskLane(factory.forSubsystem(subsystem), threads, queueCapacity));
+            queueTimeouts.put(subsystem, TimeUnit.MILLISECONDS.toNanos(environment.getProperty(
+                    prefix + ".queue-timeout-ms", Long.class, DEFAULT_QUEUE_TIMEOUT_MS)));
+            requestTimeouts.put(subsystem, environment.getProperty(prefix + ".request-timeout-ms", Long.class));
+            rejected.put(subsystem, new AtomicLong());
+        }
+    }
+
+    /**
+     * Выполняет действие в пуле подсистемы. Если заняты все потоки и очередь, бросает
+     * {@link ServiceOverloadedException}, которое превращается в ответ 503. Тем же исключением завершается
+     * задача, дождавшаяся потока позже срока ожидания в очереди.
+     */
+    public <T> CompletableFuture<T> supply(Subsystem subsystem, Supplier<T> action) {
+        long deadline = System.nanoTime() + queueTimeouts.get(subsystem);
+        try {
+            return lanes.get(subsystem).submit(withEntityManager(action), deadline, () -> reject(subsystem));
+        } catch (RejectedExecutionException e) {
+            throw reject(subsystem);
+        }
+    }
+
+    /**
+     * Как {@link #supply}, но для долгих задач вроде загрузок: ответ ждёт {@code .request-timeout-ms}
+     * подсистемы, а проверяемые исключения действия доходят до обработчиков ошибок как есть.
+     */
+    public <T> DeferredResult<T> defer(Subsystem subsystem, Callable<T> action) {
+        DeferredResult<T> result = new DeferredResult<>(requestTimeouts.get(subsystem));
+        supply(subsystem, () -> {
+            try {
+                return action.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }).whenComplete((value, e) -> {
+            if (e == null) {
+                result.setResult(value);
+            } else {
+                result.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        return result;
+    }
+
+    public CompletableFuture<Void> run(Subsystem subsystem, Runnable action) {
+        return supply(subsystem, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private ServiceOverloadedException reject(Subsystem subsystem) {
+        rejected.get(subsystem).incrementAndGet();
+        return new ServiceOverloadedException(String.format("Подсистема %s перегружена, повторите запрос позже",
+                subsystem.propertyName()));
+    }
+
+    private <T> Supplier<T> withEntityManager(Supplier<T> action) {
+        if (entityManagerFactory == null) {
+            return action;
+        }
+        return () -> {
+            EntityManagerHolder holder = new EntityManagerHolder(entityManagerFactory.createEntityManager());
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, holder);
+            try {
+                return action.get();
+            } finally {
+                TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+                EntityManagerFactoryUtils.closeEntityManager(holder.getEntityManager());
+            }
+        };
+    }
+
+    /**
+     * Глубина очереди, занятые потоки и выполненные задачи каждого пула публикуются как {@code executor.*}
+     * с тегом {@code subsystem}, отклонённые запросы, в том числе просроченные в очереди, - как {@code shareit.bulkhead.rejected}.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lanes.forEach((subsystem, lane) -> {
+            Tags tags = Tags.of("subsystem", subsystem.propertyName());
+            lane.bindTo(registry, tags);
+            FunctionCounter.builder("shareit.bulkhead.rejected", rejected.get(subsystem), AtomicLong::get)
+                    .tags(tags)
+                    .register(registry);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        lanes.values().forEach(BulkheadLane::shutdown);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Потоки и очередь одной подсистемы {@link Bulkhead}.
+ */
+interface BulkheadLane {
+    /**
+     * Запускает задачу. Если очередь заполнена, бросает {@link RejectedExecutionException}. Задача, не начавшая
+     * выполняться до {@code deadline} по {@link System#nanoTime()}, не выполняется, а завершается исключением
+     * {@code expired}.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> task, long deadline, Supplier<? extends RuntimeException> expired);
+
+    void bindTo(MeterRegistry registry, Tags tags);
+
+    void shutdown();
+}
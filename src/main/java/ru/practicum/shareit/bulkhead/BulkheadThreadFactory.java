@@ -0,0 +1,12 @@
+package ru.practicum.shareit.bulkhead;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Создаёт потоки для задач подсистемы. С таким бином {@link Bulkhead} не держит пулов и запускает каждую задачу
+ * в новом потоке фабрики, ограничивая только число одновременных задач. Без него подсистемы работают
+ * на фиксированных пулах потоков платформы.
+ */
+public interface BulkheadThreadFactory {
+    ThreadFactory forSubsystem(Subsystem subsystem);
+}
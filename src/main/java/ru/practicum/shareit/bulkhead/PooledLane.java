@@ -0,0 +1,45 @@
+package ru.practicum.shareit.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Фиксированный пул потоков платформы с ограниченной очередью.
+ */
+class PooledLane implements BulkheadLane {
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    PooledLane(String name, int threads, int queueCapacity) {
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-");
+        executor.initialize();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Supplier<T> task, long deadline,
+                                           Supplier<? extends RuntimeException> expired) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (System.nanoTime() - deadline > 0) {
+                throw expired.get();
+            }
+            return task.get();
+        }, executor);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry, Tags tags) {
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "bulkhead", tags).bindTo(registry);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
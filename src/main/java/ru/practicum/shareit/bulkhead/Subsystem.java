@@ -0,0 +1,16 @@
+package ru.practicum.shareit.bulkhead;
+
+/**
+ * Подсистемы со своими пулами потоков: медленные запросы одной подсистемы не занимают потоки других.
+ */
+public enum Subsystem {
+    BOOKINGS,
+    IMPORTS,
+    ITEMS,
+    REQUESTS,
+    USERS;
+
+    public String propertyName() {
+        return name().toLowerCase();
+    }
+}
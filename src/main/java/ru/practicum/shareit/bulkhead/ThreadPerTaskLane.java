@@ -0,0 +1,116 @@
+package ru.practicum.shareit.bulkhead;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Каждая задача получает новый поток из фабрики, пула нет. Это режим для виртуальных потоков: их не переиспользуют,
+ * а число одновременно выполняемых задач ограничивает семафор на {@code concurrency} мест. Ещё
+ * {@code queueCapacity} задач могут ждать места, остальные отклоняются сразу.
+ */
+class ThreadPerTaskLane implements BulkheadLane {
+    private final ThreadFactory threadFactory;
+    private final int concurrency;
+    private final int capacity;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final AtomicLong completed = new AtomicLong();
+    private volatile boolean shutdown;
+
+    ThreadPerTaskLane(ThreadFactory threadFactory, int concurrency, int queueCapacity) {
+        this.threadFactory = threadFactory;
+        this.concurrency = concurrency;
+        this.capacity = concurrency + queueCapacity;
+        this.admitted = new Semaphore(capacity);
+        this.running = new Semaphore(concurrency);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Supplier<T> task, long deadline,
+                                           Supplier<? extends RuntimeException> expired) {
+        if (shutdown || !admitted.tryAcquire()) {
+            throw new RejectedExecutionException("Очередь подсистемы заполнена");
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            threadFactory.newThread(() -> {
+                try {
+                    execute(task, deadline, expired, future);
+                } finally {
+                    admitted.release();
+                }
+            }).start();
+        } catch (RuntimeException | Error e) {
+            admitted.release();
+            throw e;
+        }
+        return future;
+    }
+
+    private <T> void execute(Supplier<T> task, long deadline, Supplier<? extends RuntimeException> expired,
+                             CompletableFuture<T> future) {
+        try {
+            if (!running.tryAcquire(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                future.completeExceptionally(expired.get());
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return;
+        }
+        try {
+            future.complete(task.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            running.release();
+            completed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Публикует те же {@code executor.active}, {@code executor.queued} и {@code executor.completed},
+     * что и пул потоков, чтобы панели не зависели от режима.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry, Tags tags) {
+        Tags all = Tags.of("name", "bulkhead").and(tags);
+        Gauge.builder("executor.active", this, lane -> lane.active())
+                .tags(all)
+                .baseUnit(BaseUnits.THREADS)
+                .register(registry);
+        Gauge.builder("executor.queued", this, lane -> lane.queued())
+                .tags(all)
+                .baseUnit(BaseUnits.TASKS)
+                .register(registry);
+        FunctionCounter.builder("executor.completed", completed, AtomicLong::get)
+                .tags(all)
+                .baseUnit(BaseUnits.TASKS)
+                .register(registry);
+    }
+
+    private int active() {
+        return concurrency - running.availablePermits();
+    }
+
+    private int queued() {
+        return Math.max(capacity - admitted.availablePermits() - active(), 0);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+}
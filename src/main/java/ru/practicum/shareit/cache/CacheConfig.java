@@ -0,0 +1,44 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Локальные кэши приложения. Каждый кэш ограничен по размеру и времени жизни и собирает статистику
+ * попаданий, промахов и вытеснений. Запись и удаление выполняются после коммита транзакции,
+ * поэтому откатанные изменения в кэш не попадают.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String USERS = "users";
+    public static final String ITEM_VIEWS = "item-views";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${shareit.cache.users.maximum-size:10000}") long usersMaximumSize,
+                                     @Value("${shareit.cache.users.expire-after-write:10m}") Duration usersTtl,
+                                     @Value("${shareit.cache.item-views.maximum-size:10000}") long itemViewsMaximumSize,
+                                     @Value("${shareit.cache.item-views.expire-after-write:10m}") Duration itemViewsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(USERS, build(usersMaximumSize, usersTtl));
+        cacheManager.registerCustomCache(ITEM_VIEWS, build(itemViewsMaximumSize, itemViewsTtl));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static Cache<Object, Object> build(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -3,6 +3,8 @@ package ru.practicum.shareit.exception;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
 
+import javax.validation.ConstraintViolationException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -35,6 +38,19 @@ public class RestExceptionHandler extends ExceptionHandlerExceptionResolver {
                 .body(errors);
     }
 
+    @ExceptionHandler(ConstraintViolationException.class)
+    private ResponseEntity<Map<String, String>> handleConstraintViolations(ConstraintViolationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getConstraintViolations().forEach(violation -> {
+            String path = violation.getPropertyPath().toString();
+            errors.put(path.substring(path.lastIndexOf('.') + 1), violation.getMessage());
+        });
+        log.error("Ошибки валидации параметров запроса: {}", errors);
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(errors);
+    }
+
     @ExceptionHandler(NotFoundException.class)
     private ResponseEntity<Set<String>> handleException(NotFoundException exception) {
         Set<String> messages = new HashSet<>();
@@ -95,6 +111,37 @@ public class RestExceptionHandler extends ExceptionHandlerExceptionResolver {
                 .body(messages);
     }
 
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    private ResponseEntity<Set<String>> handleException(ConcurrentUpdateException exception) {
+        Set<String> messages = new HashSet<>();
+        messages.add(exception.getMessage());
+        log.error("Конфликт параллельного обновления: {}", messages);
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(messages);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    private ResponseEntity<Set<String>> handleException(OptimisticLockingFailureException exception) {
+        Set<String> messages = new HashSet<>();
+        messages.add("Запись изменена параллельным запросом, повторите запрос");
+        log.error("Конфликт версий: {}", exception.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(messages);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    private ResponseEntity<Set<String>> handleException(ServiceOverloadedException exception) {
+        Set<String> messages = new HashSet<>();
+        messages.add(exception.getMessage());
+        log.warn("Запрос отклонён: {}", messages);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(messages);
+    }
+
     @ExceptionHandler(UnknownState.class)
     private ResponseEntity<UnknownStateException> handleException(UnknownState exception) {
         Set<String> messages = new HashSet<>();
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.exporting;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+import ru.practicum.shareit.importing.ImportReader;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Пишет выгрузку в поток ответа в формате NDJSON (один объект на строку). Источник читает строки курсором
+ * порциями по {@value FETCH_SIZE} и отдаёт их по одной, поэтому память не зависит от размера выгрузки.
+ * Источник выполняется в читающей транзакции: без неё PostgreSQL игнорирует fetch size и читает результат целиком.
+ * <p>
+ * Выгрузка держит соединение с базой всё время записи, поэтому выгрузки идут в отдельном пуле
+ * из {@code shareit.export.concurrency} потоков со своим таймаутом {@code shareit.export.timeout}.
+ * Остальные асинхронные запросы живут по короткому общему {@code spring.mvc.async.request-timeout}.
+ */
+@Component
+public class ExportWriter implements DisposableBean {
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(ImportReader.APPLICATION_NDJSON_VALUE);
+    public static final int FETCH_SIZE = 500;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final Semaphore permits;
+    private final long timeout;
+
+    public ExportWriter(ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                        @Value("${shareit.export.concurrency:2}") int concurrency,
+                        @Value("${shareit.export.timeout:30m}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(concurrency);
+        this.executor.setMaxPoolSize(concurrency);
+        this.executor.setThreadNamePrefix("export-");
+        this.executor.initialize();
+        this.permits = new Semaphore(concurrency);
+        this.timeout = timeout.toMillis();
+    }
+
+    /**
+     * Запускает запись выгрузки в ответ в пуле выгрузок. Если все места заняты, бросает
+     * {@link ServiceOverloadedException}, которое превращается в ответ 503.
+     * <p>
+     * Место освобождается ровно один раз: задачей после записи либо обработчиками таймаута, ошибки
+     * и завершения запроса, если задача так и не начала писать. Опоздавшая задача после этого уже ничего не пишет,
+     * поэтому число одновременных выгрузок не превышает размер пула.
+     */
+    public WebAsyncTask<Void> stream(HttpServletResponse response, StreamingResponseBody body) {
+        if (!permits.tryAcquire()) {
+            throw new ServiceOverloadedException("Выполняется слишком много выгрузок, повторите запрос позже");
+        }
+        AtomicBoolean claimed = new AtomicBoolean();
+        Runnable abandon = () -> {
+            if (claimed.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        try {
+            WebAsyncTask<Void> task = new WebAsyncTask<>(timeout, executor, () -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    response.setContentType(APPLICATION_NDJSON.toString());
+                    body.writeTo(response.getOutputStream());
+                    response.flushBuffer();
+                    return null;
+                } finally {
+                    permits.release();
+                }
+            });
+            onAbandon(task, abandon);
+            return task;
+        } catch (RuntimeException e) {
+            abandon.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Вешает {@code abandon} на таймаут, ошибку и завершение запроса. Обработчики таймаута и ошибки
+     * возвращают {@link CallableProcessingInterceptor#RESULT_NONE}, чтобы ответ строился как обычно.
+     */
+    @SuppressWarnings("unchecked")
+    private static void onAbandon(WebAsyncTask<?> task, Runnable abandon) {
+        WebAsyncTask<Object> untyped = (WebAsyncTask<Object>) task;
+        Callable<Object> release = () -> {
+            abandon.run();
+            return CallableProcessingInterceptor.RESULT_NONE;
+        };
+        untyped.onTimeout(release);
+        untyped.onError(release);
+        untyped.onCompletion(abandon);
+    }
+
+    public <T> StreamingResponseBody write(Consumer<Consumer<T>> source) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                transactionTemplate.executeWithoutResult(status -> source.accept(row -> writeRow(generator, row)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void writeRow(JsonGenerator generator, Object row) {
+        try {
+            writer.writeValue(generator, row);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
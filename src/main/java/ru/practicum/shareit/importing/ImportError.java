@@ -0,0 +1,13 @@
+package ru.practicum.shareit.importing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportError {
+    private int row;
+    private String message;
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.importing;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Читает тело загрузки построчно и передаёт строки обработчику порциями по {@value CHUNK_SIZE}.
+ * Тело может быть JSON-массивом или NDJSON (один объект на строку). Строка, которую не удалось
+ * разобрать, попадает в ошибки, остальные продолжают обрабатываться.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImportReader {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final int CHUNK_SIZE = 500;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public <T> ImportResult read(InputStream body, Class<T> type,
+                                 BiConsumer<List<ImportRow<T>>, ImportResult> chunkHandler) throws IOException {
+        ImportResult result = new ImportResult();
+        List<ImportRow<T>> chunk = new ArrayList<>(CHUNK_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        if (firstSignificantChar(reader) == '[') {
+            readArray(reader, type, result, chunk, chunkHandler);
+        } else {
+            readLines(reader, type, result, chunk, chunkHandler);
+        }
+        if (!chunk.isEmpty()) {
+            chunkHandler.accept(chunk, result);
+        }
+        return result;
+    }
+
+    /**
+     * Проверяет аннотации bean validation строки и возвращает текст нарушений или {@code null}.
+     */
+    public String violations(Object value) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(value);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private <T> void readArray(BufferedReader reader, Class<T> type, ImportResult result, List<ImportRow<T>> chunk,
+                               BiConsumer<List<ImportRow<T>>, ImportResult> chunkHandler) throws IOException {
+        try (MappingIterator<T> values = objectMapper.readerFor(type).readValues(reader)) {
+            while (true) {
+                int row = result.getTotal() + 1;
+                try {
+                    if (!values.hasNextValue()) {
+                        return;
+                    }
+                    result.setTotal(row);
+                    add(new ImportRow<>(row, values.nextValue()), result, chunk, chunkHandler);
+                } catch (JsonParseException e) {
+                    result.setTotal(row);
+                    result.reject(row, e.getOriginalMessage());
+                    return;
+                } catch (JsonProcessingException e) {
+                    result.setTotal(row);
+                    result.reject(row, e.getOriginalMessage());
+                }
+            }
+        }
+    }
+
+    private <T> void readLines(BufferedReader reader, Class<T> type, ImportResult result, List<ImportRow<T>> chunk,
+                               BiConsumer<List<ImportRow<T>>, ImportResult> chunkHandler) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int row = result.getTotal() + 1;
+            result.setTotal(row);
+            try {
+                add(new ImportRow<>(row, objectMapper.readValue(line, type)), result, chunk, chunkHandler);
+            } catch (JsonProcessingException e) {
+                result.reject(row, e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static <T> void add(ImportRow<T> row, ImportResult result, List<ImportRow<T>> chunk,
+                                BiConsumer<List<ImportRow<T>>, ImportResult> chunkHandler) {
+        chunk.add(row);
+        if (chunk.size() == CHUNK_SIZE) {
+            chunkHandler.accept(chunk, result);
+            chunk.clear();
+        }
+    }
+
+    private static int firstSignificantChar(BufferedReader reader) throws IOException {
+        int c;
+        do {
+            reader.mark(1);
+            c = reader.read();
+        } while (c != -1 && Character.isWhitespace(c));
+        if (c != -1) {
+            reader.reset();
+        }
+        return c;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.importing;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог загрузки: сколько строк прочитано, сколько записано и почему отклонены остальные.
+ */
+@Data
+public class ImportResult {
+    private int total;
+    private int imported;
+    private List<ImportError> errors = new ArrayList<>();
+
+    public void reject(int row, String message) {
+        errors.add(new ImportError(row, message));
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.importing;
+
+import lombok.Value;
+
+/**
+ * Строка загрузки с её номером во входном потоке, начиная с единицы.
+ */
+@Value
+public class ImportRow<T> {
+    int row;
+    T value;
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.importing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Записывает проверенные строки порции одним пакетом. Если пакет нарушил ограничение целостности, например email
+ * успела занять параллельная загрузка или строка ссылается на удалённую запись, порция повторяется по одной строке
+ * и отклоняются только нарушившие. Конфликт уникального ключа описывает {@code conflict}, остальные нарушения
+ * попадают в отчёт общим сообщением.
+ * Каждая попытка идёт в своей точке сохранения на соединении транзакции порции: в PostgreSQL ошибка
+ * иначе прерывает всю транзакцию. Возвращает записанные значения.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImportWriter {
+    private final JdbcTemplate jdbcTemplate;
+
+    public <T> List<T> write(List<ImportRow<T>> rows, ImportResult result, Consumer<List<T>> insertAll,
+                             Function<T, String> conflict) {
+        List<T> values = rows.stream().map(ImportRow::getValue).collect(Collectors.toList());
+        if (rows.isEmpty()) {
+            return values;
+        }
+        DataIntegrityViolationException batchError = attempt(() -> insertAll.accept(values));
+        if (batchError == null) {
+            result.setImported(result.getImported() + rows.size());
+            return values;
+        }
+        log.debug("Пакет из {} строк нарушил ограничение целостности, запись по одной строке: {}",
+                rows.size(), batchError.getMessage());
+        List<T> written = new ArrayList<>();
+        for (ImportRow<T> row : rows) {
+            DataIntegrityViolationException error = attempt(() -> insertAll.accept(List.of(row.getValue())));
+            if (error == null) {
+                result.setImported(result.getImported() + 1);
+                written.add(row.getValue());
+            } else if (error instanceof DuplicateKeyException) {
+                result.reject(row.getRow(), conflict.apply(row.getValue()));
+            } else {
+                log.debug("Строка {} нарушила ограничение целостности: {}", row.getRow(), error.getMessage());
+                result.reject(row.getRow(), "Строка не записана: нарушено ограничение целостности данных");
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Выполняет вставку в точке сохранения. Возвращает нарушение целостности, после которого точка сохранения
+     * откатана, или {@code null}, если вставка прошла.
+     */
+    private DataIntegrityViolationException attempt(Runnable insert) {
+        Savepoint savepoint = jdbcTemplate.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+        try {
+            insert.run();
+        } catch (DataIntegrityViolationException e) {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                connection.rollback(savepoint);
+                return null;
+            });
+            return e;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+        return null;
+    }
+}
@@ -1,59 +1,102 @@
 package ru.practicum.shareit.item.controller;
 
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.bulkhead.Subsystem;
+import ru.practicum.shareit.exporting.ExportWriter;
+import ru.practicum.shareit.importing.ImportReader;
+import ru.practicum.shareit.importing.ImportResult;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDataDto;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.entity.Comment;
-import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.service.ItemExportService;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.InputStream;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
+@Validated
 @RestController
 @RequestMapping("/items")
 public class ItemController {
     private static final String HEADER_X_SHARER_USER_ID = "X-Sharer-User-Id";
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
+    private final ItemExportService itemExportService;
+    private final ExportWriter exportWriter;
+    private final Bulkhead bulkhead;
 
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ItemImportService itemImportService,
+                          ItemExportService itemExportService, ExportWriter exportWriter, Bulkhead bulkhead) {
         this.itemService = itemService;
+        this.itemImportService = itemImportService;
+        this.itemExportService = itemExportService;
+        this.exportWriter = exportWriter;
+        this.bulkhead = bulkhead;
     }
 
     @PostMapping
-    public Item create(@Valid @RequestBody ItemDto itemDto,
-                       @RequestHeader(HEADER_X_SHARER_USER_ID) Long id) {
-        return itemService.create(itemDto, id);
+    public CompletableFuture<ItemDto> create(@Valid @RequestBody ItemDto itemDto,
+                                             @RequestHeader(HEADER_X_SHARER_USER_ID) Long id) {
+        return bulkhead.supply(Subsystem.ITEMS, () -> ItemMapper.itemToDto(itemService.create(itemDto, id)));
+    }
+
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, ImportReader.APPLICATION_NDJSON_VALUE})
+    public DeferredResult<ImportResult> importItems(InputStream body, @RequestHeader(HEADER_X_SHARER_USER_ID) Long id) {
+        return bulkhead.defer(Subsystem.IMPORTS, () -> itemImportService.importItems(body, id));
+    }
+
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportItems(@RequestHeader(HEADER_X_SHARER_USER_ID) Long id,
+                                          HttpServletResponse response) {
+        return exportWriter.stream(response, itemExportService.exportItems(id));
     }
 
     @PatchMapping("{id}")
-    public Item update(@Valid @RequestBody ItemDto item,
-                       @PathVariable Long id,
-                       @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
-        return itemService.update(item, id, userId);
+    public CompletableFuture<ItemDto> update(@Valid @RequestBody ItemDto item,
+                                             @PathVariable Long id,
+                                             @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
+        return bulkhead.supply(Subsystem.ITEMS, () -> ItemMapper.itemToDto(itemService.update(item, id, userId)));
     }
 
     @GetMapping("{id}")
-    public ItemDataDto getItemById(@Valid @PathVariable Long id, @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
-        return itemService.getItemById(id, userId);
+    public CompletableFuture<ItemDataDto> getItemById(@Valid @PathVariable Long id,
+                                                      @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
+        return bulkhead.supply(Subsystem.ITEMS, () -> itemService.getItemById(id, userId));
     }
 
     @GetMapping
-    public Collection<ItemDataDto> getItemById(@RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
-        return itemService.getItemByUser(userId);
+    public CompletableFuture<Collection<ItemDataDto>> getItemById(@RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
+        return bulkhead.supply(Subsystem.ITEMS, () -> itemService.getItemByUser(userId));
     }
 
     @GetMapping("/search")
-    public Collection<Item> getItemBySearch(@RequestParam String text, @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId) {
-        return itemService.getItemBySearch(text);
+    public CompletableFuture<Collection<ItemDto>> getItemBySearch(@RequestParam String text,
+                                                                  @RequestHeader(HEADER_X_SHARER_USER_ID) Long userId,
+                                                                  @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                                  @Positive @RequestParam(defaultValue = "10") Integer size) {
+        return bulkhead.supply(Subsystem.ITEMS, () -> itemService.getItemBySearch(text, from, size));
     }
 
     @PostMapping("/{itemId}/comment")
-    public Comment addComment(@Valid @RequestBody CommentDto commentDto,
-                              @RequestHeader(HEADER_X_SHARER_USER_ID) Long id,
-                              @PathVariable Long itemId) {
-        return itemService.addComment(commentDto, id, itemId);
+    public CompletableFuture<CommentResponseDto> addComment(@Valid @RequestBody CommentDto commentDto,
+                                                            @RequestHeader(HEADER_X_SHARER_USER_ID) Long id,
+                                                            @PathVariable Long itemId) {
+        return bulkhead.supply(Subsystem.ITEMS,
+                () -> CommentMapper.commentToDto(itemService.addComment(commentDto, id, itemId)));
     }
 
 }
@@ -4,8 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingDataDto;
-import ru.practicum.shareit.item.entity.Comment;
-import ru.practicum.shareit.user.entity.User;
 
 import java.util.List;
 import java.util.Objects;
@@ -20,8 +18,7 @@ public class ItemDataDto {
     private Boolean available;
     private BookingDataDto lastBooking;
     private BookingDataDto nextBooking;
-    private List<Comment> comments;
-    private User user;
+    private List<CommentResponseDto> comments;
     private Long requestId;
 
     @Override
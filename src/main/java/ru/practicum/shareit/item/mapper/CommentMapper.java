@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.mapper;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.entity.Comment;
 
 import java.time.LocalDateTime;
@@ -13,4 +14,8 @@ public class CommentMapper {
     public static Comment commentDtoToComment(CommentDto commentDto, List<Booking> booking, LocalDateTime time) {
         return new Comment(commentDto.getId(), commentDto.getText(), booking.get(0).getItem(), booking.get(0).getBooker().getName(), time);
     }
+
+    public static CommentResponseDto commentToDto(Comment comment) {
+        return new CommentResponseDto(comment.getId(), comment.getText(), comment.getAuthorName(), comment.getCreated(), comment.getItem().getId());
+    }
 }
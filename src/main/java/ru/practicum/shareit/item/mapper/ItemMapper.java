@@ -1,11 +1,10 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.booking.entity.Booking;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDataDto;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDataDto;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.entity.Comment;
 import ru.practicum.shareit.item.entity.Item;
 import ru.practicum.shareit.user.entity.User;
 
@@ -18,14 +17,16 @@ public class ItemMapper {
     }
 
     public static Item dtoItemUpdate(ItemDto itemDto, Item item, User user) {
-        return new Item(itemDto.getId() != null ? itemDto.getId() : item.getId(), itemDto.getName() != null ? itemDto.getName() : item.getName(), itemDto.getDescription() != null ? itemDto.getDescription() : item.getDescription(), itemDto.getAvailable() != null ? itemDto.getAvailable() : item.getAvailable(), item.getRequestId(), user);
+        Item updated = new Item(itemDto.getId() != null ? itemDto.getId() : item.getId(), itemDto.getName() != null ? itemDto.getName() : item.getName(), itemDto.getDescription() != null ? itemDto.getDescription() : item.getDescription(), itemDto.getAvailable() != null ? itemDto.getAvailable() : item.getAvailable(), item.getRequestId(), user);
+        updated.setVersion(item.getVersion());
+        return updated;
     }
 
-    public static ItemDataDto itemToDataDtoNoBooking(Item item, List<Comment> comment) {
-        return new ItemDataDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(), null, null, comment, item.getUser(), item.getRequestId());
+    public static ItemDto itemToDto(Item item) {
+        return new ItemDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(), item.getRequestId());
     }
 
-    public static ItemDataDto itemToDataDto(List<Booking> booking, List<Booking> bookingNext, List<Comment> comment) {
-        return new ItemDataDto(booking.get(0).getItem().getId(), booking.get(0).getItem().getName(), booking.get(0).getItem().getDescription(), booking.get(0).getItem().getAvailable(), BookingMapper.bookingDtoNoItem(booking.get(0)), bookingNext.size() > 1 ? BookingMapper.bookingDtoNoItem(bookingNext.get(bookingNext.size() - 1)) : null, comment, booking.get(0).getItem().getUser(), booking.get(0).getItem().getRequestId());
+    public static ItemDataDto itemToDataDto(ItemDto item, BookingDataDto lastBooking, BookingDataDto nextBooking, List<CommentResponseDto> comment) {
+        return new ItemDataDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(), lastBooking, nextBooking, comment, item.getRequestId());
     }
 }
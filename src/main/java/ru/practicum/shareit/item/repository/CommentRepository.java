@@ -1,12 +1,22 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.entity.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItem_Id(Long id);
+    String COMMENT_RESPONSE = "SELECT new ru.practicum.shareit.item.dto.CommentResponseDto("
+            + "c.id, c.text, c.authorName, c.created, c.item.id) FROM Comment c ";
+
+    @Query(COMMENT_RESPONSE + "WHERE c.item.id = ?1 ORDER BY c.created")
+    List<CommentResponseDto> findCommentsByItemId(Long id);
+
+    @Query(COMMENT_RESPONSE + "WHERE c.item.id IN ?1 ORDER BY c.created")
+    List<CommentResponseDto> findCommentsByItemIdIn(Collection<Long> ids);
 }
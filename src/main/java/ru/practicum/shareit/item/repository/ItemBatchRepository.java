@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.importing.PooledIds;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Item;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетная запись вещей через JDBC для массовой загрузки и массовых решений по бронированиям.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledIds pooledIds;
+
+    public void insertAll(List<ItemDto> items, Long ownerId) {
+        Iterator<Long> ids = pooledIds.next(Item.class, items.size()).iterator();
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name_item, description, available, user_id, request_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", items, items.size(), (ps, item) -> {
+                    ps.setLong(1, ids.next());
+                    ps.setString(2, item.getName());
+                    ps.setString(3, item.getDescription());
+                    ps.setBoolean(4, item.getAvailable());
+                    ps.setLong(5, ownerId);
+                    ps.setObject(6, item.getRequestId(), Types.BIGINT);
+                });
+    }
+
+    /**
+     * Пакетный вариант {@link ItemRepository#incrementVersion}. Возвращает {@code false}, если хотя бы одну вещь
+     * изменили с момента чтения.
+     */
+    public boolean incrementVersions(Collection<Item> items) {
+        int[] counts = jdbcTemplate.batchUpdate("UPDATE items SET version = version + 1 WHERE id = ? AND version = ?",
+                items.stream().map(item -> new Object[]{item.getId(), item.getVersion()}).collect(Collectors.toList()));
+        return Arrays.stream(counts).noneMatch(count -> count == 0);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.exporting.ExportWriter;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.function.Consumer;
+
+/**
+ * Потоковое чтение вещей через JDBC для выгрузки: строки не попадают в контекст персистентности.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemExportRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public void forEachByOwnerId(Long ownerId, Consumer<ItemDto> action) {
+        jdbcTemplate.query("SELECT id, name_item, description, available, request_id "
+                + "FROM items WHERE user_id = ? ORDER BY id", ps -> {
+                    ps.setFetchSize(ExportWriter.FETCH_SIZE);
+                    ps.setLong(1, ownerId);
+                }, (RowCallbackHandler) rs -> action.accept(new ItemDto(rs.getLong("id"), rs.getString("name_item"),
+                        rs.getString("description"), rs.getObject("available", Boolean.class),
+                        rs.getObject("request_id", Long.class))));
+    }
+}
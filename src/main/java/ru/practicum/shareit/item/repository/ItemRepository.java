@@ -1,16 +1,96 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.entity.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByUserId(long userId);
+    String ITEM_DTO = "SELECT new ru.practicum.shareit.item.dto.ItemDto("
+            + "i.id, i.name, i.description, i.available, i.requestId) FROM Item i ";
 
-    List<Item> findByNameOrDescriptionContainingIgnoreCase(String name, String description);
+    @Query(ITEM_DTO + "WHERE i.user.id = ?1 ORDER BY i.id")
+    List<ItemDto> findItemsByUserId(Long userId);
 
-    List<Item> findByRequestId(Long id);
+    /**
+     * Доступные вещи, где подстрока {@code pattern} есть в названии или описании. Сначала идут вещи, у которых
+     * искомое слово целиком есть в названии ({@code wordRegex}), затем подстрока в названии, затем слово целиком
+     * в описании, затем остальные.
+     */
+    @Query(ITEM_DTO + "WHERE i.available = TRUE "
+            + "AND (LOWER(i.name) LIKE ?1 ESCAPE '\\' OR LOWER(i.description) LIKE ?1 ESCAPE '\\') "
+            + "ORDER BY CASE WHEN FUNCTION('regexp_like', LOWER(i.name), ?2) = TRUE THEN 0 "
+            + "WHEN LOWER(i.name) LIKE ?1 ESCAPE '\\' THEN 1 "
+            + "WHEN FUNCTION('regexp_like', LOWER(i.description), ?2) = TRUE THEN 2 "
+            + "ELSE 3 END, i.id")
+    List<ItemDto> searchAvailableItems(String pattern, String wordRegex, Pageable pageable);
+
+    @Query(ITEM_DTO + "WHERE i.requestId = ?1")
+    List<ItemDto> findItemsByRequestId(Long id);
+
+    @Query(ITEM_DTO + "WHERE i.requestId IN ?1")
+    List<ItemDto> findItemsByRequestIdIn(Collection<Long> ids);
+
+    /**
+     * Блокирует вещи, чьи ссылки указывают на бронирования пользователя, и возвращает их id.
+     */
+    @Query(value = "SELECT i.id FROM items i "
+            + "WHERE i.last_booking_id IN (SELECT b.id FROM booking b WHERE b.booker_id = :bookerId) "
+            + "OR i.next_booking_id IN (SELECT b.id FROM booking b WHERE b.booker_id = :bookerId) "
+            + "ORDER BY i.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockPointingAtBookingsOf(@Param("bookerId") Long bookerId);
+
+    @Query(value = "SELECT i.id FROM items i WHERE i.next_booking_start < :time ORDER BY i.id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockWithStartedNextBooking(@Param("time") LocalDateTime time);
+
+    /**
+     * Пересчитывает ссылки на последнее и следующее бронирование вещи относительно момента {@code time}.
+     * Строки вещей должны быть заблокированы заранее, иначе параллельный пересчёт затрёт чужое бронирование.
+     */
+    String REFRESH_BOOKINGS = "UPDATE items i SET "
+            + "last_booking_id = (SELECT b.id FROM booking b WHERE b.item_id = i.id AND b.start_date < :time "
+            + "ORDER BY b.end_date DESC, b.start_date, b.id LIMIT 1), "
+            + "next_booking_id = (SELECT b.id FROM booking b WHERE b.item_id = i.id AND b.start_date >= :time "
+            + "ORDER BY b.start_date, b.id LIMIT 1), "
+            + "next_booking_start = (SELECT MIN(b.start_date) FROM booking b "
+            + "WHERE b.item_id = i.id AND b.start_date >= :time) ";
+
+    @Modifying
+    @Query(value = REFRESH_BOOKINGS + "WHERE i.id = :itemId", nativeQuery = true)
+    int refreshBookings(@Param("itemId") Long itemId, @Param("time") LocalDateTime time);
+
+    @Modifying
+    @Query(value = REFRESH_BOOKINGS + "WHERE i.id IN (:itemIds)", nativeQuery = true)
+    int refreshBookingsIn(@Param("itemIds") Collection<Long> itemIds, @Param("time") LocalDateTime time);
+
+    /**
+     * Переводит ссылку на следующее бронирование вещи на новое бронирование, если оно начинается раньше текущего
+     * следующего. Под READ COMMITTED условие перепроверяется на последней версии строки, поэтому параллельные
+     * бронирования одной вещи не затирают друг друга и блокировать вещь заранее не нужно. Устаревшую ссылку,
+     * указывающую на уже начавшееся бронирование, не трогает: её вместе с последним бронированием пересчитывает
+     * {@code ItemService.rollForwardBookings}.
+     */
+    @Modifying
+    @Query(value = "UPDATE items SET next_booking_id = :bookingId, next_booking_start = :start "
+            + "WHERE id = :itemId AND (next_booking_start IS NULL OR next_booking_start > :start "
+            + "OR next_booking_start = :start AND next_booking_id > :bookingId)", nativeQuery = true)
+    int moveNextBooking(@Param("itemId") Long itemId, @Param("bookingId") Long bookingId,
+                        @Param("start") LocalDateTime start);
+
+    /**
+     * Увеличивает версию вещи, если её не меняли с момента чтения. 0 означает конфликт с параллельной транзакцией.
+     */
+    @Modifying
+    @Query("UPDATE Item i SET i.version = i.version + 1 WHERE i.id = :id AND i.version = :version")
+    int incrementVersion(@Param("id") Long id, @Param("version") Long version);
 }
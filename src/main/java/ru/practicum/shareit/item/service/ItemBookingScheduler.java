@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодически сдвигает ссылки на бронирования: следующее бронирование, чьё время началось,
+ * становится последним. Чтение не зависит от задачи и при устаревших ссылках считает их заново.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemBookingScheduler {
+    private final ItemService itemService;
+
+    @Scheduled(fixedDelayString = "${shareit.items.bookings-roll-forward-delay-ms:60000}")
+    public void rollForwardBookings() {
+        itemService.rollForwardBookings();
+    }
+}
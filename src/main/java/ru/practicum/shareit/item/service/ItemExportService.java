@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.exporting.ExportWriter;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemExportRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+/**
+ * Выгрузка всех вещей владельца одним потоком.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemExportService {
+    private final UserService userService;
+    private final ItemExportRepository itemExportRepository;
+    private final ExportWriter exportWriter;
+
+    public StreamingResponseBody exportItems(Long ownerId) {
+        log.debug("Выгрузка вещей владельца {}", ownerId);
+        userService.getById(ownerId);
+        return exportWriter.<ItemDto>write(rows -> itemExportRepository.forEachByOwnerId(ownerId, rows));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ValidationItemException;
+import ru.practicum.shareit.importing.ImportReader;
+import ru.practicum.shareit.importing.ImportResult;
+import ru.practicum.shareit.importing.ImportRow;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemBatchRepository;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Массовая загрузка вещей одного владельца с теми же проверками, что и при создании одной вещи.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemImportService {
+    private final ImportReader importReader;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final RequestRepository requestRepository;
+    private final ItemBatchRepository itemBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImportResult importItems(InputStream body, Long ownerId) throws IOException {
+        log.debug("Массовая загрузка вещей владельца {}", ownerId);
+        userService.getById(ownerId);
+        ImportResult result = importReader.read(body, ItemDto.class,
+                (rows, r) -> transactionTemplate.executeWithoutResult(status -> importChunk(rows, r, ownerId)));
+        log.debug("Загружено вещей {} из {}", result.getImported(), result.getTotal());
+        return result;
+    }
+
+    private void importChunk(List<ImportRow<ItemDto>> rows, ImportResult result, Long ownerId) {
+        Set<Long> requests = new HashSet<>(requestRepository.findIdsByIdIn(rows.stream()
+                .map(r -> r.getValue().getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())));
+        List<ItemDto> items = new ArrayList<>();
+        for (ImportRow<ItemDto> row : rows) {
+            ItemDto item = row.getValue();
+            String error = validate(item, requests);
+            if (error != null) {
+                result.reject(row.getRow(), error);
+            } else {
+                items.add(item);
+            }
+        }
+        if (!items.isEmpty()) {
+            itemBatchRepository.insertAll(items, ownerId);
+            result.setImported(result.getImported() + items.size());
+        }
+    }
+
+    private String validate(ItemDto item, Set<Long> requests) {
+        try {
+            itemService.validationItem(item);
+        } catch (ValidationItemException e) {
+            return e.getMessage();
+        }
+        if (item.getRequestId() != null && !requests.contains(item.getRequestId())) {
+            return String.format("Запрос %d не существует", item.getRequestId());
+        }
+        return importReader.violations(item);
+    }
+}
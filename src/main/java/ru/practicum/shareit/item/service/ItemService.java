@@ -1,14 +1,21 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingShortView;
 import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConcurrentUpdateException;
 import ru.practicum.shareit.exception.ItemOwnerMismatchException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationItemException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDataDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.entity.Comment;
@@ -17,118 +24,179 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.metrics.MetricsConfig;
+import ru.practicum.shareit.pagination.OffsetPageable;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class ItemService {
     private static final String NOT_FOUND_MESSAGE = "предмет с id = %s не найден...";
+    /**
+     * Поиск ищет подстроку через LIKE '%текст%': ведущий % не даёт использовать B-tree индекс, и без триграммных
+     * индексов PostgreSQL (V4) каждый запрос просматривает все доступные вещи. Все совпадения к тому же
+     * сортируются по рангу; ограничение страницы сокращает только передачу и разбор результата.
+     */
+    private static final int MAX_SEARCH_SIZE = 100;
+    /**
+     * Буквы и цифры, из которых состоит слово при ранжировании поиска; любой другой символ - граница слова.
+     * Перечислены явно: классы вроде \w и [:alnum:] по-разному понимают кириллицу в PostgreSQL и H2.
+     */
+    private static final String WORD_CHARS = "0-9a-zа-яё";
+    static final int MAX_UPDATE_ATTEMPTS = 3;
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemViewCache itemViewCache;
+    private final TransactionTemplate transactionTemplate;
 
-    public ItemService(ItemRepository itemRepository, UserService userService, BookingRepository bookingRepository, CommentRepository commentRepository) {
+    public ItemService(ItemRepository itemRepository, UserService userService, BookingRepository bookingRepository,
+                       CommentRepository commentRepository, ItemViewCache itemViewCache,
+                       TransactionTemplate transactionTemplate) {
         this.itemRepository = itemRepository;
         this.userService = userService;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
+        this.itemViewCache = itemViewCache;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Transactional
     public Item create(ItemDto itemDto, Long id) {
         log.debug("Попытка создания предмета {}", itemDto);
         validationItem(itemDto);
-        userService.getById(id);
         Item item = ItemMapper.toDtoItem(itemDto, userService.getById(id));
+        item.setId(null);
         return itemRepository.save(item);
     }
 
-    @Transactional
+    /**
+     * Одобрение бронирования увеличивает версию вещи, поэтому правка, прочитавшая вещь до одобрения, проигрывает
+     * на сохранении. Такая правка повторяется целиком не более {@value MAX_UPDATE_ATTEMPTS} раз.
+     */
     public Item update(ItemDto item, Long id, Long userId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyUpdate(item, id, userId));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw new ConcurrentUpdateException(
+                            String.format("Обновление предмета %d не удалось из-за параллельных изменений", id));
+                }
+                log.debug("Конфликт версий: {}, попытка {}", e.getMessage(), attempt);
+            }
+        }
+    }
+
+    private Item applyUpdate(ItemDto item, Long id, Long userId) {
         log.debug("Попытка обновления предмета {}", item);
-        User user = userService.getById(userId);
-        if (itemRepository.findById(id).isPresent()) {
-            Item itemDB = itemRepository.findById(id).get();
-            if (itemDB.getUser().getId().compareTo(userId) != 0)
-                throw new ItemOwnerMismatchException("предмет пренадлежит другому пользователю...");
-            Item itemUpdate = ItemMapper.dtoItemUpdate(item, itemDB, user);
-            itemUpdate.setId(id);
-            return itemRepository.save(itemUpdate);
-        } else {
-            throw new NotFoundException(String.format(NOT_FOUND_MESSAGE, id));
+        Item itemDB = itemRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
+        if (itemDB.getUser().getId().compareTo(userId) != 0) {
+            userService.getById(userId);
+            throw new ItemOwnerMismatchException("предмет пренадлежит другому пользователю...");
         }
+        Item itemUpdate = ItemMapper.dtoItemUpdate(item, itemDB, itemDB.getUser());
+        itemUpdate.setId(id);
+        itemViewCache.evict(id);
+        return itemRepository.save(itemUpdate);
     }
 
     @Transactional(readOnly = true)
     public ItemDataDto getItemById(Long id, Long userID) {
         log.debug("Получение дынных о предмете с ID = {}", id);
-        if (itemRepository.findById(id).isPresent()) {
-            Item item = itemRepository.findById(id).get();
-            List<Comment> comments = commentRepository.findByItem_Id(id);
-            LocalDateTime time = LocalDateTime.now();
-
-            List<Booking> bookings = bookingRepository.findByItem_IdOrderByEndDesc(id).stream().filter(i -> i.getStart().isBefore(time) && i.getItem().getUser().getId().equals(userID)).collect(Collectors.toList());
-
-            List<Booking> bookingNext = bookingRepository.findByItem_IdOrderByEndDesc(id).stream().filter(p -> p.getEnd().isAfter(time) && p.getStart().isAfter(time) && p.getItem().getUser().getId().equals(userID)).collect(Collectors.toList());
-            if (bookings.size() > 0) {
-                return ItemMapper.itemToDataDto(bookings, bookingNext, comments);
-            } else {
-                return ItemMapper.itemToDataDtoNoBooking(item, comments);
-            }
+        LocalDateTime time = LocalDateTime.now();
+        long epoch = itemViewCache.epoch(id);
+        ItemDataDto cached = itemViewCache.get(id, userID, time);
+        if (cached != null) {
+            return cached;
+        }
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
+        Long ownerId = item.getUser().getId();
+        ItemDto itemDto = ItemMapper.itemToDto(item);
+        List<CommentResponseDto> comments = commentRepository.findCommentsByItemId(id);
+        if (!ownerId.equals(userID)) {
+            ItemDataDto view = ItemMapper.itemToDataDto(itemDto, null, null, comments);
+            itemViewCache.put(id, ownerId, false, view, null, epoch);
+            return view;
+        }
+
+        BookingShortView lastBooking = null;
+        BookingShortView nextBooking = null;
+        List<BookingShortView> bookings = bookingRepository.findBookingPointersByItemId(id);
+        if (isStale(bookings, time)) {
+            lastBooking = bookingRepository.findLastByItemId(id, time).orElse(null);
+            nextBooking = bookingRepository.findNextByItemId(id, time).orElse(null);
         } else {
-            throw new NotFoundException(String.format(NOT_FOUND_MESSAGE, id));
+            for (BookingShortView booking : bookings) {
+                if (booking.getLast()) {
+                    lastBooking = booking;
+                } else {
+                    nextBooking = booking;
+                }
+            }
         }
+        ItemDataDto view = ItemMapper.itemToDataDto(itemDto, BookingMapper.bookingViewToDataDto(lastBooking),
+                BookingMapper.bookingViewToDataDto(nextBooking), comments);
+        itemViewCache.put(id, ownerId, true, view, nextBooking == null ? null : nextBooking.getStart(), epoch);
+        return view;
     }
 
     @Transactional(readOnly = true)
-    public Collection<Item> getItemBySearch(String text) {
+    public Collection<ItemDto> getItemBySearch(String text, Integer from, Integer size) {
+        if (from < 0 || size <= 0) {
+            throw new ValidationItemException(String.format("Не верно указано количество предметов %d или страниц %d", from, size));
+        }
         if (text.isBlank()) {
             return List.of();
         }
         log.debug("Получение дынных о предмете по маске %{}%", text);
-        return itemRepository.findByNameOrDescriptionContainingIgnoreCase(text, text).stream().filter(Item::getAvailable).collect(Collectors.toList());
+        int pageSize = Math.min(size, MAX_SEARCH_SIZE);
+        String query = text.toLowerCase();
+        String wordRegex = "(^|[^" + WORD_CHARS + "])" + escapeRegex(query) + "([^" + WORD_CHARS + "]|$)";
+        return itemRepository.searchAvailableItems("%" + escapeLike(query) + "%", wordRegex,
+                OffsetPageable.of(from, pageSize));
     }
 
     @Transactional(readOnly = true)
     public Collection<ItemDataDto> getItemByUser(Long userId) {
         log.debug("Получение дынных о предметах с владельцем ID = {}", userId);
         userService.getById(userId);
-        List<Item> items = itemRepository.findByUserId(userId);
-        List<ItemDataDto> dataDtoList = new ArrayList<>();
-
-        while (!items.isEmpty()) {
-            dataDtoList.add(ItemMapper.itemToDataDtoNoBooking(items.get(0), commentRepository.findByItem_Id(items.get(0).getId())));
-            items.remove(0);
+        List<ItemDto> items = itemRepository.findItemsByUserId(userId);
+        if (items.isEmpty()) {
+            return List.of();
         }
+        List<Long> itemIds = items.stream().map(ItemDto::getId).collect(Collectors.toList());
+        Map<Long, List<CommentResponseDto>> comments = commentRepository.findCommentsByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(CommentResponseDto::getItemId));
 
-        List<ItemDataDto> bookingItems = new ArrayList<>();
+        Map<Long, BookingShortView> lastBookings = new HashMap<>();
+        Map<Long, BookingShortView> nextBookings = new HashMap<>();
         LocalDateTime time = LocalDateTime.now();
-
-        List<Booking> booking = bookingRepository.findByItem_User_IdOrderByEndDesc(userId).stream().filter(p -> p.getEnd().isBefore(time) && p.getStart().isBefore(time) && p.getItem().getUser().getId().equals(userId)).collect(Collectors.toList());
-
-        List<Booking> bookingNext = bookingRepository.findByItem_User_IdOrderByEndDesc(userId).stream().filter(p -> p.getEnd().isAfter(time) && p.getStart().isAfter(time) && p.getItem().getUser().getId().equals(userId)).collect(Collectors.toList());
-
-        if (!booking.isEmpty() && !bookingNext.isEmpty()) {
-            while (!booking.isEmpty() && !bookingNext.isEmpty()) {
-                bookingItems.add(ItemMapper.itemToDataDto(booking, bookingNext, commentRepository.findByItem_Id(booking.get(0).getItem().getId())));
-                booking.remove(0);
-                bookingNext.remove(bookingNext.size() - 1);
-            }
-            bookingItems.addAll(dataDtoList);
-            return bookingItems.stream().distinct().sorted(Comparator.comparing(ItemDataDto::getId)).collect(Collectors.toList());
-        } else {
-            log.debug("Запрошены предметы пользователя c id: {}", userId);
-            return dataDtoList.stream().distinct().sorted(Comparator.comparing(ItemDataDto::getId)).collect(Collectors.toList());
+        List<BookingShortView> bookings = bookingRepository.findBookingPointersByOwnerId(userId);
+        if (isStale(bookings, time)) {
+            bookings = bookingRepository.findLastAndNextByOwnerId(userId, time);
+        }
+        for (BookingShortView booking : bookings) {
+            (booking.getLast() ? lastBookings : nextBookings).put(booking.getItemId(), booking);
         }
+
+        return items.stream()
+                .map(i -> ItemMapper.itemToDataDto(i,
+                        BookingMapper.bookingViewToDataDto(lastBookings.get(i.getId())),
+                        BookingMapper.bookingViewToDataDto(nextBookings.get(i.getId())),
+                        comments.getOrDefault(i.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 
     @Transactional
@@ -138,15 +206,71 @@ public class ItemService {
 
         if (!booking.isEmpty() && !commentDto.getText().isEmpty()) {
             Comment comment = CommentMapper.commentDtoToComment(commentDto, booking, time);
+            itemViewCache.evict(itemId);
             return commentRepository.save(comment);
         } else {
             throw new ValidationItemException(String.format("Предмет с id %d не был арендован или не существует", itemId));
         }
     }
 
+    /**
+     * Сдвигает ссылки на последнее и следующее бронирование у вещей, чьё следующее бронирование уже началось.
+     */
+    @Transactional
+    public int rollForwardBookings() {
+        LocalDateTime time = LocalDateTime.now();
+        List<Long> itemIds = itemRepository.lockWithStartedNextBooking(time);
+        int updated = itemIds.isEmpty() ? 0 : itemRepository.refreshBookingsIn(itemIds, time);
+        log.debug("Обновлены ссылки на бронирования у {} предметов", updated);
+        return updated;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemDto> getByRequestId(Long requestId) {
+        return itemRepository.findItemsByRequestId(requestId);
+    }
+
+    /**
+     * Вещи для нескольких запросов одним обращением к базе, сгруппированные по id запроса.
+     */
     @Transactional(readOnly = true)
-    public List<Item> getByRequestId(Long requestId) {
-        return itemRepository.findByRequestId(requestId);
+    public Map<Long, List<ItemDto>> getByRequestIds(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return Map.of();
+        }
+        return itemRepository.findItemsByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+    }
+
+    /**
+     * Ссылки устарели, если следующее бронирование уже началось, а фоновая задача ещё не успела их сдвинуть.
+     */
+    private static boolean isStale(List<BookingShortView> bookings, LocalDateTime time) {
+        return bookings.stream().anyMatch(b -> !b.getLast() && b.getStart().isBefore(time));
+    }
+
+    /**
+     * Экранирует символы LIKE, чтобы они искались как обычный текст.
+     */
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    /**
+     * Экранирует все символы, кроме букв, цифр и пробелов: после обратной косой черты они буквальны
+     * и в регулярных выражениях Java (H2), и в PostgreSQL.
+     */
+    private static String escapeRegex(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        text.codePoints().forEach(c -> {
+            if (!Character.isLetterOrDigit(c) && c != ' ') {
+                escaped.append('\\');
+            }
+            escaped.appendCodePoint(c);
+        });
+        return escaped.toString();
     }
 
     public void validationItem(ItemDto itemDto) {
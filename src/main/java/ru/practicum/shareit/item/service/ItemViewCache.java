@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.cache.CacheConfig;
+import ru.practicum.shareit.item.dto.ItemDataDto;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш собранных карточек вещи. Владелец и остальные пользователи видят разные карточки,
+ * поэтому ключ - пара (id вещи, смотрит ли владелец). Карточка владельца действительна только
+ * до начала следующего бронирования: после этого момента оно становится последним.
+ * <p>
+ * Запись и сброс выполняются после коммита. Сброс вещи увеличивает эпоху её полосы; карточка, собранная
+ * до сброса, в кэш уже не попадает, даже если читающая транзакция закончилась позже пишущей.
+ * Эпохи разбиты на {@value STRIPES} полос по id вещи, поэтому сброс одной вещи отбрасывает запись
+ * только карточек из той же полосы, а память не растёт с числом вещей.
+ */
+@Component
+public class ItemViewCache {
+    static final int STRIPES = 64;
+    private final Cache cache;
+    private final AtomicLong[] epochs = new AtomicLong[STRIPES];
+
+    public ItemViewCache(CacheManager cacheManager) {
+        Cache cache = cacheManager.getCache(CacheConfig.ITEM_VIEWS);
+        this.cache = cache instanceof TransactionAwareCacheDecorator
+                ? ((TransactionAwareCacheDecorator) cache).getTargetCache() : cache;
+        for (int i = 0; i < STRIPES; i++) {
+            epochs[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Эпоха вещи. Читать нужно до загрузки карточки из базы и передавать в {@link #put}.
+     */
+    public long epoch(Long itemId) {
+        return stripe(itemId).get();
+    }
+
+    public ItemDataDto get(Long itemId, Long userId, LocalDateTime time) {
+        ItemView view = cache.get(new Key(itemId, true), ItemView.class);
+        if (view == null || !view.getOwnerId().equals(userId)) {
+            view = cache.get(new Key(itemId, false), ItemView.class);
+            if (view != null && view.getOwnerId().equals(userId)) {
+                return null;
+            }
+        }
+        if (view == null || view.getValidUntil() != null && !time.isBefore(view.getValidUntil())) {
+            return null;
+        }
+        return view.getData();
+    }
+
+    public void put(Long itemId, Long ownerId, boolean owner, ItemDataDto data, LocalDateTime validUntil,
+                    long loadedAt) {
+        AtomicLong epoch = stripe(itemId);
+        afterCommit(() -> {
+            synchronized (epoch) {
+                if (epoch.get() == loadedAt) {
+                    cache.put(new Key(itemId, owner), new ItemView(ownerId, data, validUntil));
+                }
+            }
+        });
+    }
+
+    /**
+     * Сбрасывает обе карточки вещи. Вызывается при любом изменении вещи, её бронирований или отзывов.
+     */
+    public void evict(Long itemId) {
+        AtomicLong epoch = stripe(itemId);
+        afterCommit(() -> {
+            synchronized (epoch) {
+                epoch.incrementAndGet();
+                cache.evict(new Key(itemId, true));
+                cache.evict(new Key(itemId, false));
+            }
+        });
+    }
+
+    /**
+     * Сбрасывает все карточки. Нужен, когда затронутые вещи заранее неизвестны, например при удалении
+     * пользователя вместе с его вещами, бронированиями и отзывами.
+     */
+    public void clear() {
+        afterCommit(() -> {
+            for (AtomicLong epoch : epochs) {
+                synchronized (epoch) {
+                    epoch.incrementAndGet();
+                }
+            }
+            cache.clear();
+        });
+    }
+
+    private AtomicLong stripe(Long itemId) {
+        return epochs[Math.floorMod(itemId.hashCode(), STRIPES)];
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Value
+    private static class Key {
+        Long itemId;
+        boolean owner;
+    }
+
+    @Value
+    private static class ItemView {
+        Long ownerId;
+        ItemDataDto data;
+        LocalDateTime validUntil;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Таймеры сервисного слоя. Класс, помеченный {@code @Timed(MetricsConfig.SERVICE_TIMER)}, публикует время
+ * каждого публичного метода с тегами class, method и exception. Перцентили и гистограммы для него,
+ * как и для таймеров репозиториев, настраиваются в application.properties. Таймер стоит снаружи кэша
+ * и транзакции, поэтому учитывает и попадания в кэш, и время коммита.
+ */
+@Configuration
+public class MetricsConfig {
+    public static final String SERVICE_TIMER = "shareit.service";
+
+    @Bean
+    public ServiceTimedAspect serviceTimedAspect(MeterRegistry registry) {
+        return new ServiceTimedAspect(new TimedAspect(registry));
+    }
+}
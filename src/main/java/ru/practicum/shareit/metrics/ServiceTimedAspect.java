@@ -0,0 +1,33 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * {@link TimedAspect} с порядком выше кэша и транзакций. Сам {@code TimedAspect} не упорядочен и оказывается
+ * внутри {@code @Cacheable}, поэтому попадания в кэш не попадали в таймер. Наследоваться от него нельзя:
+ * Spring не принимает аспект, расширяющий конкретный аспект, поэтому вызовы делегируются.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceTimedAspect {
+    private final TimedAspect delegate;
+
+    public ServiceTimedAspect(TimedAspect delegate) {
+        this.delegate = delegate;
+    }
+
+    @Around("@within(io.micrometer.core.annotation.Timed)")
+    public Object timedClass(ProceedingJoinPoint pjp) throws Throwable {
+        return delegate.timedClass(pjp);
+    }
+
+    @Around("execution (@io.micrometer.core.annotation.Timed * *.*(..))")
+    public Object timedMethod(ProceedingJoinPoint pjp) throws Throwable {
+        return delegate.timedMethod(pjp);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Value;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.ValidationItemException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Позиция в списке, отсортированном по убыванию (key, id). Следующая страница начинается
+ * со строк строго меньше курсора, поэтому её стоимость не зависит от номера страницы.
+ */
+@Value
+public class Cursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final Cursor FIRST = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    LocalDateTime key;
+    Long id;
+
+    public static Cursor decode(String cursor) {
+        if (cursor == null) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",");
+            return new Cursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new ValidationItemException(String.format("Некорректный курсор %s", cursor));
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((key + "," + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Возвращает страницу и, если она заполнена целиком, курсор на следующую в заголовке {@value NEXT_CURSOR_HEADER}.
+     */
+    public static <T> ResponseEntity<List<T>> page(List<T> page, int size,
+                                                   Function<T, LocalDateTime> key, Function<T, Long> id) {
+        if (page.size() < size) {
+            return ResponseEntity.ok(page);
+        }
+        T last = page.get(page.size() - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, new Cursor(key.apply(last), id.apply(last)).encode())
+                .body(page);
+    }
+
+    /**
+     * То же, что {@link #page(List, int, Function, Function)}, и число строк во всём списке
+     * в заголовке {@value TOTAL_COUNT_HEADER}.
+     */
+    public static <T> ResponseEntity<List<T>> page(List<T> page, int size, long total,
+                                                   Function<T, LocalDateTime> key, Function<T, Long> id) {
+        ResponseEntity<List<T>> response = page(page, size, key, id);
+        return ResponseEntity.ok()
+                .headers(response.getHeaders())
+                .header(TOTAL_COUNT_HEADER, String.valueOf(total))
+                .body(response.getBody());
+    }
+}
@@ -1,41 +1,65 @@
 package ru.practicum.shareit.request.controller;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.bulkhead.Subsystem;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemGetRequestDTO;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
-import ru.practicum.shareit.request.entity.ItemRequest;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.service.RequestService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
+@Validated
 @RestController
 @RequestMapping("/requests")
 @RequiredArgsConstructor
 public class RequestController {
     private final RequestService requestService;
+    private final Bulkhead bulkhead;
 
     @PostMapping
-    public ItemRequest create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                              @Valid @RequestBody ItemRequestDto request) {
-        return requestService.create(request, userId);
+    public CompletableFuture<ItemRequestDto> create(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @Valid @RequestBody ItemRequestDto request) {
+        return bulkhead.supply(Subsystem.REQUESTS,
+                () -> ItemRequestMapper.itemRequestToDto(requestService.create(request, userId)));
     }
 
+    /**
+     * Без {@code size} возвращает первые {@value RequestService#MAX_PAGE_SIZE} запросов. Если страница заполнена,
+     * заголовок {@value Cursor#NEXT_CURSOR_HEADER} указывает на следующую.
+     */
     @GetMapping
-    public List<ItemGetRequestDTO> getByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return requestService.getListRequest(userId);
+    public CompletableFuture<ResponseEntity<List<ItemGetRequestDTO>>> getByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                                 @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                                                 @Positive @RequestParam(required = false) Integer size,
+                                                                                 @RequestParam(required = false) String cursor) {
+        int pageSize = RequestService.pageSize(size);
+        return bulkhead.supply(Subsystem.REQUESTS, () -> Cursor.page(requestService.getListRequest(userId, from, pageSize, cursor),
+                pageSize, ItemGetRequestDTO::getCreated, ItemGetRequestDTO::getId));
     }
 
     @GetMapping("/all")
-    public List<ItemGetRequestDTO> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                   @RequestParam(defaultValue = "0") Integer from,
-                                   @RequestParam(required = false, defaultValue = "10") Integer size) {
-        return requestService.getListAllRequest(userId, from, size);
+    public CompletableFuture<ResponseEntity<List<ItemGetRequestDTO>>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                                             @Positive @RequestParam(required = false, defaultValue = "10") Integer size,
+                                                                             @RequestParam(required = false) String cursor) {
+        int pageSize = RequestService.pageSize(size);
+        return bulkhead.supply(Subsystem.REQUESTS, () -> Cursor.page(requestService.getListAllRequest(userId, from, pageSize, cursor),
+                pageSize, ItemGetRequestDTO::getCreated, ItemGetRequestDTO::getId));
     }
 
     @GetMapping("/{requestId}")
-    public ItemGetRequestDTO getById(@PathVariable("requestId") Long requestId, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return requestService.getRequest(userId, requestId);
+    public CompletableFuture<ItemGetRequestDTO> getById(@PathVariable("requestId") Long requestId,
+                                                        @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bulkhead.supply(Subsystem.REQUESTS, () -> requestService.getRequest(userId, requestId));
     }
 }
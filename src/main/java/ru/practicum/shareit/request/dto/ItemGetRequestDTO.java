@@ -2,7 +2,7 @@ package ru.practicum.shareit.request.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,5 +13,9 @@ public class ItemGetRequestDTO {
     private Long id;
     private String description;
     private LocalDateTime created;
-    private List<Item> items;
+    private List<ItemDto> items;
+
+    public ItemGetRequestDTO(Long id, String description, LocalDateTime created) {
+        this(id, description, created, List.of());
+    }
 }
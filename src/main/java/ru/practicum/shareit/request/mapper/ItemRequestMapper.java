@@ -1,11 +1,12 @@
 package ru.practicum.shareit.request.mapper;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.ItemGetRequestDTO;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.entity.ItemRequest;
 import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,7 +23,16 @@ public class ItemRequestMapper {
         );
     }
 
-    public static ItemGetRequestDTO transformationGetRequestDTO(ItemRequest request, List<Item> item) {
+    public static ItemRequestDto itemRequestToDto(ItemRequest request) {
+        return new ItemRequestDto(
+                request.getId(),
+                request.getDescription(),
+                UserMapper.userToDto(request.getRequester()),
+                request.getCreated()
+        );
+    }
+
+    public static ItemGetRequestDTO transformationGetRequestDTO(ItemRequest request, List<ItemDto> item) {
         return new ItemGetRequestDTO(request.getId(),
                 request.getDescription(),
                 request.getCreated(),
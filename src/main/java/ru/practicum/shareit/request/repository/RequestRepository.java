@@ -2,15 +2,35 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.dto.ItemGetRequestDTO;
 import ru.practicum.shareit.request.entity.ItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findByRequester_IdOrderByCreatedDesc(Long id);
+    String REQUEST_DTO = "SELECT new ru.practicum.shareit.request.dto.ItemGetRequestDTO("
+            + "r.id, r.description, r.created) FROM ItemRequest r ";
 
-    List<ItemRequest> findAllByRequesterIdNot(Long userId, Pageable pageable);
+    String KEYSET = "AND r.created <= :cursorCreated AND (r.created < :cursorCreated OR r.id < :cursorId) "
+            + "ORDER BY r.created DESC, r.id DESC";
+
+    @Query(REQUEST_DTO + "WHERE r.requester.id = :userId " + KEYSET)
+    List<ItemGetRequestDTO> findByRequester_IdOrderByCreatedDesc(@Param("userId") Long userId,
+                                                                 @Param("cursorCreated") LocalDateTime cursorCreated,
+                                                                 @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("SELECT r.id FROM ItemRequest r WHERE r.id IN ?1")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @Query(REQUEST_DTO + "WHERE r.requester.id <> :userId " + KEYSET)
+    List<ItemGetRequestDTO> findAllByRequesterIdNot(@Param("userId") Long userId,
+                                                    @Param("cursorCreated") LocalDateTime cursorCreated,
+                                                    @Param("cursorId") Long cursorId, Pageable pageable);
 }
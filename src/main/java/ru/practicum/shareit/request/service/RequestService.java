@@ -1,16 +1,19 @@
 package ru.practicum.shareit.request.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationItemException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.metrics.MetricsConfig;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.OffsetPageable;
 import ru.practicum.shareit.request.dto.ItemGetRequestDTO;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.entity.ItemRequest;
@@ -20,15 +23,24 @@ import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 @Getter
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 @Slf4j
 public class RequestService {
+    /**
+     * Больше запросов за раз не отдаётся, следующие страницы читаются по курсору. Это же размер страницы
+     * по умолчанию для клиентов, которые не передают {@code size}.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final RequestRepository requestRepository;
     private final UserService userService;
     private final ItemService itemService;
@@ -36,7 +48,7 @@ public class RequestService {
     @Transactional
     public ItemRequest create(ItemRequestDto itemRequestDto, Long id) {
         try {
-            LocalDateTime time = LocalDateTime.now();
+            LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
             ItemRequest itemRequest = ItemRequestMapper.dtoToItemRequest(itemRequestDto, userService.getById(id), time);
             return requestRepository.save(itemRequest);
         } catch (NullPointerException e) {
@@ -45,15 +57,13 @@ public class RequestService {
     }
 
     @Transactional(readOnly = true)
-    public List<ItemGetRequestDTO> getListRequest(Long id) {
+    public List<ItemGetRequestDTO> getListRequest(Long id, Integer from, Integer size, String cursor) {
         User user = userService.getById(id);
-        List<ItemGetRequestDTO> requestsResult = new ArrayList<>();
-
-        requestRepository.findByRequester_IdOrderByCreatedDesc(id)
-                .forEach(i -> requestsResult.add(ItemRequestMapper.transformationGetRequestDTO(
-                        i, itemService.getByRequestId(i.getId()))));
-
-        return requestsResult;
+        validatePage(from, size);
+        Cursor position = Cursor.decode(cursor);
+        Pageable pageable = OffsetPageable.of(cursor == null ? from : 0, pageSize(size));
+        return withItems(requestRepository.findByRequester_IdOrderByCreatedDesc(id, position.getKey(),
+                position.getId(), pageable));
     }
 
     @Transactional(readOnly = true)
@@ -68,22 +78,39 @@ public class RequestService {
     }
 
     @Transactional(readOnly = true)
-    public List<ItemGetRequestDTO> getListAllRequest(Long userId, Integer from, Integer size) {
+    public List<ItemGetRequestDTO> getListAllRequest(Long userId, Integer from, Integer size, String cursor) {
         User user = userService.getById(userId);
 
-        Pageable pageable = PageRequest.of(from / size, size,
-                Sort.by(Sort.Direction.DESC, "created"));
+        validatePage(from, size);
+        Cursor position = Cursor.decode(cursor);
+        Pageable pageable = OffsetPageable.of(cursor == null ? from : 0, pageSize(size));
+        return withItems(requestRepository.findAllByRequesterIdNot(userId, position.getKey(), position.getId(),
+                pageable));
+    }
 
-        List<ItemGetRequestDTO> requestsResult = new ArrayList<>();
-        if (from >= 0 && size > 0) {
-            requestRepository.findAllByRequesterIdNot(userId, pageable)
-                    .forEach(i -> requestsResult.add(ItemRequestMapper.transformationGetRequestDTO(
-                            i, itemService.getByRequestId(i.getId()))));
-            return requestsResult;
-        } else {
+    /**
+     * Подгружает вещи сразу для всей страницы запросов.
+     */
+    private List<ItemGetRequestDTO> withItems(List<ItemGetRequestDTO> requests) {
+        Map<Long, List<ItemDto>> items = itemService.getByRequestIds(requests.stream()
+                .map(ItemGetRequestDTO::getId)
+                .collect(Collectors.toList()));
+        requests.forEach(r -> r.setItems(items.getOrDefault(r.getId(), List.of())));
+        return requests;
+    }
+
+    /**
+     * Размер страницы с учётом {@link #MAX_PAGE_SIZE}: без {@code size} или с большим значением отдаётся
+     * {@value #MAX_PAGE_SIZE} запросов.
+     */
+    public static int pageSize(Integer size) {
+        return size == null ? MAX_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static void validatePage(Integer from, Integer size) {
+        if (from < 0 || size <= 0) {
             throw new ValidationItemException(String.format("Не верно указано количество предметов %d или страниц %d", from, size));
         }
-
     }
 
 }
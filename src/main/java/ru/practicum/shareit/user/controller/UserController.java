@@ -1,42 +1,58 @@
 package ru.practicum.shareit.user.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.bulkhead.Subsystem;
+import ru.practicum.shareit.importing.ImportReader;
+import ru.practicum.shareit.importing.ImportResult;
 import ru.practicum.shareit.user.dto.UserDto;
-import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.service.UserImportService;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.Valid;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/users")
 @AllArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final Bulkhead bulkhead;
 
     @PostMapping
-    public User create(@Valid @RequestBody UserDto user) {
-        return userService.create(user);
+    public CompletableFuture<UserDto> create(@Valid @RequestBody UserDto user) {
+        return bulkhead.supply(Subsystem.USERS, () -> UserMapper.userToDto(userService.create(user)));
+    }
+
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, ImportReader.APPLICATION_NDJSON_VALUE})
+    public DeferredResult<ImportResult> importUsers(InputStream body) {
+        return bulkhead.defer(Subsystem.IMPORTS, () -> userImportService.importUsers(body));
     }
 
     @PatchMapping("{id}")
-    public User update(@Valid @RequestBody UserDto user, @PathVariable Long id) {
-        return userService.update(user, id);
+    public CompletableFuture<UserDto> update(@Valid @RequestBody UserDto user, @PathVariable Long id) {
+        return bulkhead.supply(Subsystem.USERS, () -> UserMapper.userToDto(userService.update(user, id)));
     }
 
     @GetMapping
-    public Collection<User> getUsers() {
-        return userService.getAllUsers();
+    public CompletableFuture<Collection<UserDto>> getUsers() {
+        return bulkhead.supply(Subsystem.USERS, userService::getAllUsers);
     }
 
     @GetMapping("{id}")
-    public User getUser(@PathVariable Long id) {
-        return userService.getById(id);
+    public CompletableFuture<UserDto> getUser(@PathVariable Long id) {
+        return bulkhead.supply(Subsystem.USERS, () -> UserMapper.userToDto(userService.getById(id)));
     }
 
     @DeleteMapping("{id}")
-    public void deleteUser(@PathVariable Long id) {
-        userService.deleteUser(id);
+    public CompletableFuture<Void> deleteUser(@PathVariable Long id) {
+        return bulkhead.run(Subsystem.USERS, () -> userService.deleteUser(id));
     }
 }
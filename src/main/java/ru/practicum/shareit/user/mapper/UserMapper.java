@@ -13,4 +13,8 @@ public class UserMapper {
     public static User dtoToUser(UserDto userDto) {
         return new User(userDto.getId(), userDto.getName(), userDto.getEmail());
     }
+
+    public static UserDto userToDto(User user) {
+        return new UserDto(user.getId(), user.getName(), user.getEmail());
+    }
 }
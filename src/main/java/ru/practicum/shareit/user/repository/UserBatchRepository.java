@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.importing.PooledIds;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Пакетная запись пользователей через JDBC для массовой загрузки.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledIds pooledIds;
+
+    public void insertAll(List<UserDto> users) {
+        Iterator<Long> ids = pooledIds.next(User.class, users.size()).iterator();
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, email, name_user) VALUES (?, ?, ?)", users, users.size(),
+                (ps, user) -> {
+                    ps.setLong(1, ids.next());
+                    ps.setString(2, user.getEmail());
+                    ps.setString(3, user.getName());
+                });
+    }
+}
@@ -1,12 +1,27 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.entity.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmailContainingIgnoreCase(String emailSearch);
+
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) FROM User u ORDER BY u.id")
+    List<UserDto> findAllUsers();
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = ?1")
+    int deleteUserById(Long id);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN ?1")
+    List<String> findEmailsByEmailIn(Collection<String> emails);
 }
\ No newline at end of file
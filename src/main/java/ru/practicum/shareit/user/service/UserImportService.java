@@ -0,0 +1,82 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.importing.ImportReader;
+import ru.practicum.shareit.importing.ImportResult;
+import ru.practicum.shareit.importing.ImportRow;
+import ru.practicum.shareit.importing.ImportWriter;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserBatchRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Массовая загрузка пользователей. Каждая порция проверяется и записывается одним JDBC-пакетом
+ * в своей транзакции, ошибочные строки отклоняются без остановки загрузки. Email, занятый параллельно
+ * между проверкой и записью, отклоняет только свою строку.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+    private final ImportReader importReader;
+    private final UserRepository userRepository;
+    private final UserBatchRepository userBatchRepository;
+    private final ImportWriter importWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImportResult importUsers(InputStream body) throws IOException {
+        log.debug("Массовая загрузка пользователей");
+        ImportResult result = importReader.read(body, UserDto.class,
+                (rows, r) -> transactionTemplate.executeWithoutResult(status -> importChunk(rows, r)));
+        log.debug("Загружено пользователей {} из {}", result.getImported(), result.getTotal());
+        return result;
+    }
+
+    private void importChunk(List<ImportRow<UserDto>> rows, ImportResult result) {
+        Set<String> taken = new HashSet<>(userRepository.findEmailsByEmailIn(rows.stream()
+                .map(r -> r.getValue().getEmail())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList())));
+        List<ImportRow<UserDto>> users = new ArrayList<>();
+        for (ImportRow<UserDto> row : rows) {
+            UserDto user = row.getValue();
+            String error = validate(user, taken);
+            if (error != null) {
+                result.reject(row.getRow(), error);
+            } else {
+                taken.add(user.getEmail());
+                users.add(row);
+            }
+        }
+        importWriter.write(users, result, userBatchRepository::insertAll, UserImportService::emailTaken);
+    }
+
+    private static String emailTaken(UserDto user) {
+        return String.format("Пользователь с email = %s уже существует", user.getEmail());
+    }
+
+    private String validate(UserDto user, Set<String> taken) {
+        if (user.getEmail() == null) {
+            return "передан пустой email...";
+        }
+        if (user.getName() == null || user.getName().isBlank()) {
+            return String.format("У пользователя %s нет имени", user.getEmail());
+        }
+        if (taken.contains(user.getEmail())) {
+            return emailTaken(user);
+        }
+        return importReader.violations(user);
+    }
+}
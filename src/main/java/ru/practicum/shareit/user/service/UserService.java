@@ -1,28 +1,42 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestBody;
+import ru.practicum.shareit.cache.CacheConfig;
 import ru.practicum.shareit.exception.DuplicateEmailException;
 import ru.practicum.shareit.exception.EmptyEmailException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.metrics.MetricsConfig;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.validation.ConstraintViolationException;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class UserService {
     private static final String NOT_FOUND_MESSAGE = "пользователь с id = %s не найден...";
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemViewCache itemViewCache;
+    private final CacheManager cacheManager;
 
     @Transactional
     public User create(@RequestBody UserDto userDto) {
@@ -30,48 +44,68 @@ public class UserService {
         if (userDto.getEmail() == null) throw new EmptyEmailException("передан пустой email...");
         try {
             User newUser = UserMapper.dtoToUser(userDto);
-            return userRepository.save(newUser);
+            newUser.setId(null);
+            return userRepository.saveAndFlush(newUser);
         } catch (ConstraintViolationException | NullPointerException | DataIntegrityViolationException s) {
             throw new DuplicateEmailException(String.format("Не верный email у пользователя %s", userDto.getId()));
         }
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public User update(UserDto user, Long id) {
         log.debug("Попытка обновления пользователя {}", user);
-        if (user.getEmail() != null && !getById(id).getEmail().equals(user.getEmail())) {
+        User userDB = getById(id);
+        if (user.getEmail() != null && !userDB.getEmail().equals(user.getEmail())) {
             isValidNotDuplicateEmail(user.getEmail());
         }
-        UserDto userDto = UserMapper.toUserDto(user, getById(id));
+        UserDto userDto = UserMapper.toUserDto(user, userDB);
         User updatedUser = UserMapper.dtoToUser(userDto);
         updatedUser.setId(id);
         return userRepository.save(updatedUser);
     }
 
+    /**
+     * Пользователь читается из кэша: проверка существования нужна почти каждому запросу.
+     * В кэше лежит {@link UserDto}, а не сущность: каждый вызов получает свою копию {@link User},
+     * и изменения в ней не попадают к другим запросам.
+     */
     @Transactional(readOnly = true)
     public User getById(Long id) {
         log.debug("Получение данных о пользователе с ID = {}", id);
-        if (userRepository.findById(id).isPresent()) {
-            return userRepository.findById(id).get();
-        } else {
-            throw new NotFoundException(String.format(NOT_FOUND_MESSAGE, id));
+        Cache users = cacheManager.getCache(CacheConfig.USERS);
+        UserDto user = users.get(id, UserDto.class);
+        if (user == null) {
+            user = UserMapper.userToDto(userRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id))));
+            users.put(id, user);
         }
+        return UserMapper.dtoToUser(user);
     }
 
     @Transactional(readOnly = true)
-    public Collection<User> getAllUsers() {
+    public Collection<UserDto> getAllUsers() {
         log.debug("Получение всех пользователей");
-        return userRepository.findAll();
+        return userRepository.findAllUsers();
     }
 
+    /**
+     * Вместе с пользователем каскадно удаляются его вещи, бронирования и отзывы, поэтому сбрасываются
+     * все карточки вещей: затронутые могут принадлежать и другим владельцам. Чужие вещи, чьи ссылки
+     * на последнее или следующее бронирование указывают на бронирования пользователя, пересчитываются.
+     */
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public void deleteUser(Long id) {
         log.debug("Удаление пользователя с ID = {}", id);
-        if (userRepository.findById(id).isPresent()) {
-            userRepository.deleteById(id);
-        } else {
+        List<Long> bookedItemIds = itemRepository.lockPointingAtBookingsOf(id);
+        if (userRepository.deleteUserById(id) == 0) {
             throw new NotFoundException(String.format(NOT_FOUND_MESSAGE, id));
         }
+        if (!bookedItemIds.isEmpty()) {
+            itemRepository.refreshBookingsIn(bookedItemIds, LocalDateTime.now());
+        }
+        itemViewCache.clear();
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,17 @@
+UPDATE items i SET
+    last_booking_id = (SELECT b.id FROM booking b WHERE b.item_id = i.id AND b.start_date < LOCALTIMESTAMP
+                       ORDER BY b.end_date DESC, b.start_date, b.id LIMIT 1),
+    next_booking_id = (SELECT b.id FROM booking b WHERE b.item_id = i.id AND b.start_date >= LOCALTIMESTAMP
+                       ORDER BY b.start_date, b.id LIMIT 1),
+    next_booking_start = (SELECT MIN(b.start_date) FROM booking b
+                          WHERE b.item_id = i.id AND b.start_date >= LOCALTIMESTAMP)
+WHERE i.last_booking_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM booking b WHERE b.id = i.last_booking_id)
+   OR i.next_booking_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM booking b WHERE b.id = i.next_booking_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_last_booking ON items (last_booking_id);
+CREATE INDEX IF NOT EXISTS idx_items_next_booking ON items (next_booking_id);
+
+ALTER TABLE items
+    ADD CONSTRAINT fk_items_last_booking FOREIGN KEY (last_booking_id) REFERENCES booking (id) ON DELETE SET NULL;
+ALTER TABLE items
+    ADD CONSTRAINT fk_items_next_booking FOREIGN KEY (next_booking_id) REFERENCES booking (id) ON DELETE SET NULL;
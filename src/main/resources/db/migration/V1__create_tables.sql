@@ -1,9 +1,3 @@
---DROP TABLE users CASCADE;
---DROP TABLE items CASCADE;
---DROP TABLE booking CASCADE;
---DROP TABLE comment CASCADE;
---DROP TABLE request CASCADE;
-
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
     email varchar(320) UNIQUE NOT NULL,
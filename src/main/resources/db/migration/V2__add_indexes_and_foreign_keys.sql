@@ -0,0 +1,21 @@
+CREATE INDEX IF NOT EXISTS idx_booking_booker_start ON booking (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_item_end ON booking (item_id, end_date DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_item_start ON booking (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_items_user ON items (user_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+CREATE INDEX IF NOT EXISTS idx_comment_item ON comment (item_id);
+CREATE INDEX IF NOT EXISTS idx_request_requester_created ON request (requester_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_request_created ON request (created DESC);
+
+ALTER TABLE items
+    ADD CONSTRAINT fk_items_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+ALTER TABLE items
+    ADD CONSTRAINT fk_items_request FOREIGN KEY (request_id) REFERENCES request (id) ON DELETE SET NULL;
+ALTER TABLE booking
+    ADD CONSTRAINT fk_booking_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE;
+ALTER TABLE booking
+    ADD CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE;
+ALTER TABLE comment
+    ADD CONSTRAINT fk_comment_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE;
+ALTER TABLE request
+    ADD CONSTRAINT fk_request_requester FOREIGN KEY (requester_id) REFERENCES users (id) ON DELETE CASCADE;
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_booking_item_status_start ON booking (item_id, booking_status, start_date DESC);
@@ -0,0 +1,5 @@
+CREATE INDEX IF NOT EXISTS idx_booking_booker_start_id ON booking (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_request_created_id ON request (created DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_booking_booker_start;
+DROP INDEX IF EXISTS idx_request_created;
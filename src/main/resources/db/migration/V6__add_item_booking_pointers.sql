@@ -0,0 +1,13 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_start TIMESTAMP WITHOUT TIME ZONE;
+
+UPDATE items i SET
+    last_booking_id = (SELECT b.id FROM booking b WHERE b.item_id = i.id AND b.start_date < LOCALTIMESTAMP
+                       ORDER BY b.end_date DESC, b.start_date, b.id LIMIT 1),
+    next_booking_id = (SELECT b.id FROM booking b WHERE b.item_id = i.id AND b.start_date >= LOCALTIMESTAMP
+                       ORDER BY b.start_date, b.id LIMIT 1),
+    next_booking_start = (SELECT MIN(b.start_date) FROM booking b
+                          WHERE b.item_id = i.id AND b.start_date >= LOCALTIMESTAMP);
+
+CREATE INDEX IF NOT EXISTS idx_items_next_booking_start ON items (next_booking_start);
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_request_requester_created_id ON request (requester_id, created DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_request_requester_created;
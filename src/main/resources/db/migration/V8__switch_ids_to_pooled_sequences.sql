@@ -0,0 +1,18 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS booking_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comment_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS request_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE booking ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comment ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE request ALTER COLUMN id DROP IDENTITY;
+
+-- Значение по умолчанию нужно вставкам в обход Hibernate (массовая загрузка через JDBC).
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+ALTER TABLE booking ALTER COLUMN id SET DEFAULT nextval('booking_seq');
+ALTER TABLE comment ALTER COLUMN id SET DEFAULT nextval('comment_seq');
+ALTER TABLE request ALTER COLUMN id SET DEFAULT nextval('request_seq');
@@ -0,0 +1,8 @@
+-- regexp_like появилась только в PostgreSQL 15. Поиск вещей ранжирует точные слова через неё,
+-- поэтому для ранних версий объявляем её поверх оператора ~ (в H2 функция встроенная).
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_proc WHERE proname = 'regexp_like' AND pronargs = 2) THEN
+        CREATE FUNCTION regexp_like(text, text) RETURNS boolean AS 'SELECT $1 ~ $2' LANGUAGE sql IMMUTABLE;
+    END IF;
+END $$;
@@ -0,0 +1,6 @@
+-- pooled-оптимизатор считает значение последовательности верхней границей пула, поэтому сдвигаем на MAX(id) + 50.
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users), false);
+SELECT setval('items_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM items), false);
+SELECT setval('booking_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM booking), false);
+SELECT setval('comment_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM comment), false);
+SELECT setval('request_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM request), false);
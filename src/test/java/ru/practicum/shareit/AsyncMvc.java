@@ -0,0 +1,27 @@
+package ru.practicum.shareit;
+
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * Выполняет запрос через MockMvc. Если контроллер вернул CompletableFuture, дожидается результата
+ * и повторно диспетчеризует запрос, как это сделал бы контейнер сервлетов.
+ */
+@UtilityClass
+public class AsyncMvc {
+    @SneakyThrows
+    public static ResultActions perform(MockMvc mvc, RequestBuilder request) {
+        ResultActions actions = mvc.perform(request);
+        MvcResult result = actions.andReturn();
+        if (!result.getRequest().isAsyncStarted()) {
+            return actions;
+        }
+        return mvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.metrics.MetricsConfig;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesRegex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMvc.perform;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class MetricsTest {
+    private final MockMvc mvc;
+    private final UserService userService;
+    private final MeterRegistry registry;
+
+    @SneakyThrows
+    @Test
+    void prometheus_shouldExposeServiceRepositoryPoolHibernateAndCacheMetrics() {
+        User user = userService.create(new UserDto(null, "metrics", "user@metrics"));
+        long timed = getByIdCount();
+        perform(mvc, get("/users/{id}", user.getId())).andExpect(status().isOk());
+        perform(mvc, get("/users/{id}", user.getId())).andExpect(status().isOk());
+        assertEquals(timed + 2, getByIdCount());
+
+        perform(mvc, get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(matchesRegex("(?s).*shareit_service_seconds_count\\{[^}]*"
+                        + "class=\"ru.practicum.shareit.user.service.UserService\"[^}]*method=\"getById\".*")))
+                .andExpect(content().string(containsString("shareit_service_seconds{")))
+                .andExpect(content().string(containsString("quantile=\"0.99\"")))
+                .andExpect(content().string(matchesRegex("(?s).*spring_data_repository_invocations_seconds_count\\{[^}]*"
+                        + "repository=\"UserRepository\".*")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                .andExpect(content().string(matchesRegex("(?s).*cache_gets_total\\{cache=\"users\"[^}]*result=\"hit\"[^}]*} 1\\.0.*")))
+                .andExpect(content().string(containsString("executor_queued_tasks{name=\"bulkhead\",subsystem=\"users\"")));
+    }
+
+    private long getByIdCount() {
+        Timer timer = registry.find(MetricsConfig.SERVICE_TIMER)
+                .tag("class", UserService.class.getName())
+                .tag("method", "getById")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
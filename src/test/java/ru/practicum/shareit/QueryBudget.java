@@ -0,0 +1,43 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMvc.perform;
+
+/**
+ * Проверяет, что запрос к эндпоинту укладывается в лимит SQL-запросов, прочитанных строк и времени ответа.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class QueryBudget {
+    public static final Duration MAX_LATENCY = Duration.ofSeconds(5);
+    private final MockMvc mvc;
+    private final QueryCounter queryCounter;
+
+    public Executable check(String name, RequestBuilder request, int maxStatements, int maxRows) {
+        return check(name, request, status().isOk(), maxStatements, maxRows);
+    }
+
+    public Executable check(String name, RequestBuilder request, ResultMatcher result, int maxStatements, int maxRows) {
+        return () -> {
+            queryCounter.reset();
+            long started = System.nanoTime();
+            perform(mvc, request).andExpect(result);
+            Duration latency = Duration.ofNanos(System.nanoTime() - started);
+
+            assertThat(name + ": statements", queryCounter.getStatements(), lessThanOrEqualTo(maxStatements));
+            assertThat(name + ": rows", queryCounter.getRows(), lessThanOrEqualTo(maxRows));
+            assertThat(name + ": latency", latency, lessThanOrEqualTo(MAX_LATENCY));
+        };
+    }
+}
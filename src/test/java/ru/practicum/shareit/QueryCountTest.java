@@ -0,0 +1,163 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMvc.perform;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Import({QueryCounter.class, QueryDataset.class, QueryBudget.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class QueryCountTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private final MockMvc mvc;
+    private final QueryCounter queryCounter;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCE.incrementAndGet();
+        owner = userRepository.save(new User(null, "owner", "owner" + n + "@email"));
+        booker = userRepository.save(new User(null, "booker", "booker" + n + "@email"));
+        item = itemRepository.save(new Item(null, "дрель", "ударная", true, null, owner));
+        LocalDateTime time = LocalDateTime.now();
+        booking = bookingRepository.save(new Booking(null, time.plusDays(1), time.plusDays(2), item, booker, BookingStatus.WAITING));
+    }
+
+    @Test
+    void createUser_shouldInsertOnly() {
+        assertStatements(1, post("/users").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\": 1, \"name\": \"new\", \"email\": \"new" + SEQUENCE.get() + "@email\"}"));
+    }
+
+    @Test
+    void updateUser_shouldLoadUserOnce() {
+        assertStatements(2, patch("/users/{id}", owner.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"updated\"}"));
+    }
+
+    @Test
+    void getUser_shouldLoadUserOnce() {
+        assertStatements(1, get("/users/{id}", owner.getId()));
+    }
+
+    @Test
+    void deleteUser_shouldLockPointedItemsAndDelete() {
+        assertStatements(2, delete("/users/{id}", booker.getId()));
+    }
+
+    @Test
+    void deleteUser_shouldRefreshItemsPointingAtDeletedBookings() {
+        transactionTemplate.executeWithoutResult(status -> itemRepository.refreshBookings(item.getId(), LocalDateTime.now()));
+        assertStatements(3, delete("/users/{id}", booker.getId()));
+    }
+
+    @Test
+    void deleteUser_shouldReturnNotFoundWithoutRefresh() {
+        assertStatements(2, delete("/users/{id}", Long.MAX_VALUE), status().isNotFound());
+    }
+
+    @Test
+    void createItem_shouldLoadOwnerOnce() {
+        assertStatements(2, post("/items").header(HEADER, owner.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"пила\", \"description\": \"цепная\", \"available\": true}"));
+    }
+
+    @Test
+    void updateItem_shouldLoadItemOnce() {
+        assertStatements(2, patch("/items/{id}", item.getId()).header(HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"пила\"}"));
+    }
+
+    @Test
+    void getItem_shouldLoadItemOnce() {
+        assertStatements(3, get("/items/{id}", item.getId()).header(HEADER, owner.getId()));
+        assertStatements(2, get("/items/{id}", item.getId()).header(HEADER, booker.getId()));
+    }
+
+    @Test
+    void createBooking_shouldLoadItemAndBookerOnce() {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        LocalDateTime time = LocalDateTime.now();
+        assertStatements(5, post("/bookings").header(HEADER, booker.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemId\": " + item.getId()
+                        + ", \"start\": \"" + time.plusDays(3).format(formatter)
+                        + "\", \"end\": \"" + time.plusDays(4).format(formatter) + "\"}"));
+    }
+
+    @Test
+    void approveBooking_shouldLoadBookingOnce() {
+        assertStatements(4, patch("/bookings/{id}", booking.getId()).header(HEADER, owner.getId())
+                .param("approved", "true"));
+    }
+
+    @Test
+    void getBooking_shouldLoadBookingOnce() {
+        assertStatements(1, get("/bookings/{id}", booking.getId()).header(HEADER, booker.getId()));
+    }
+
+    @Test
+    void saveBookings_shouldInsertInBatchesOfFifty() {
+        LocalDateTime time = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            bookings.add(new Booking(null, time.plusDays(i + 3), time.plusDays(i + 4), item, booker, BookingStatus.WAITING));
+        }
+        queryCounter.reset();
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.saveAll(bookings));
+
+        assertEquals(3, queryCounter.getStatements());
+        assertTrue(queryCounter.getSequenceCalls() <= 4);
+    }
+
+    private void assertStatements(int expected, RequestBuilder request) {
+        assertStatements(expected, request, status().isOk());
+    }
+
+    @SneakyThrows
+    private void assertStatements(int expected, RequestBuilder request, ResultMatcher result) {
+        queryCounter.reset();
+        perform(mvc, request).andExpect(result);
+        assertEquals(expected, queryCounter.getStatements());
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestComponent;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Оборачивает DataSource приложения и считает выполненные SQL-запросы и прочитанные строки.
+ * Выборки из последовательностей считаются отдельно: Hibernate делает их раз на пул из 50 идентификаторов,
+ * и от запроса к запросу их число меняется. Подключается в тест через {@code @Import(QueryCounter.class)}.
+ */
+@TestComponent
+public class QueryCounter implements BeanPostProcessor {
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicInteger rows = new AtomicInteger();
+    private final AtomicInteger sequenceCalls = new AtomicInteger();
+
+    public void reset() {
+        statements.set(0);
+        rows.set(0);
+        sequenceCalls.set(0);
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public int getRows() {
+        return rows.get();
+    }
+
+    public int getSequenceCalls() {
+        return sequenceCalls.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return wrap(bean, DataSource.class, false);
+        }
+        return bean;
+    }
+
+    private Object wrap(Object target, Class<?> type, boolean sequence) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            boolean nextval = sequence || args != null && args.length > 0 && isNextval(args[0]);
+            if (method.getName().startsWith("execute")) {
+                (nextval ? sequenceCalls : statements).incrementAndGet();
+            } else if (!sequence && target instanceof ResultSet && method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows.incrementAndGet();
+            }
+            if (result instanceof Connection) {
+                return wrap(result, Connection.class, false);
+            }
+            if (result instanceof Statement) {
+                return wrap(result, method.getReturnType().isInterface()
+                        ? method.getReturnType() : Statement.class, nextval);
+            }
+            if (result instanceof ResultSet) {
+                return wrap(result, ResultSet.class, nextval);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static boolean isNextval(Object sql) {
+        if (!(sql instanceof String)) {
+            return false;
+        }
+        String lower = ((String) sql).toLowerCase();
+        return lower.contains("nextval") || lower.contains("next value for");
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Наполняет базу набором из {@code size} строк в каждой таблице.
+ * Владелец получает каждую десятую вещь, арендатор бронирует только вещи владельца,
+ * у автора запросов каждый десятый запрос, и на каждый его запрос есть одна вещь.
+ */
+@Getter
+@TestComponent
+@RequiredArgsConstructor
+public class QueryDataset {
+    public static final String SEARCH_TEXT = "дрель";
+    @Getter(AccessLevel.NONE)
+    private final JdbcTemplate jdbcTemplate;
+    @Getter(AccessLevel.NONE)
+    private final CacheManager cacheManager;
+
+    private int size;
+    private Long ownerId;
+    private Long bookerId;
+    private Long requesterId;
+    private Long itemId;
+    private Long freeItemId;
+    private Long waitingBookingId;
+    private Long requestId;
+    private List<Long> fillerIds;
+
+    public void load(int size) {
+        this.size = size;
+        LocalDateTime time = LocalDateTime.now();
+        jdbcTemplate.update("DELETE FROM users");
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            users.add(new Object[]{"user" + i + "@dataset", "user" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (email, name_user) VALUES (?, ?)", users);
+        List<Long> userIds = ids("users");
+        ownerId = userIds.get(0);
+        bookerId = userIds.get(1);
+        requesterId = userIds.get(2);
+        fillerIds = userIds.subList(3, size);
+
+        int ownRequests = Math.max(1, size / 10);
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Long requester = i < ownRequests ? requesterId : fillerIds.get(i % fillerIds.size());
+            requests.add(new Object[]{"request" + i, requester, Timestamp.valueOf(time.minusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO request (description, requester_id, created) VALUES (?, ?, ?)", requests);
+        List<Long> requestIds = ids("request");
+        requestId = requestIds.get(0);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Long user = i % 10 == 0 ? ownerId : fillerIds.get(i % fillerIds.size());
+            Long request = i % 10 == 1 ? requestIds.get(i / 10) : null;
+            String description = i % 10 == 0 ? SEARCH_TEXT + " " + i : "item" + i;
+            items.add(new Object[]{"item" + i, description, true, user, request});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name_item, description, available, user_id, request_id) "
+                + "VALUES (?, ?, ?, ?, ?)", items);
+        List<Long> itemIds = ids("items");
+        List<Long> ownerItemIds = new ArrayList<>();
+        for (int i = 0; i < size; i += 10) {
+            ownerItemIds.add(itemIds.get(i));
+        }
+        itemId = ownerItemIds.get(0);
+        freeItemId = itemIds.get(size - 1);
+
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            LocalDateTime start = time.plusHours(i - size / 2);
+            String status = i % 3 == 0 ? "WAITING" : i % 3 == 1 ? "APPROVED" : "REJECTED";
+            bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(30)),
+                    ownerItemIds.get(i % ownerItemIds.size()), bookerId, status});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO booking (start_date, end_date, item_id, booker_id, booking_status) "
+                + "VALUES (?, ?, ?, ?, ?)", bookings);
+        new NamedParameterJdbcTemplate(jdbcTemplate).update(ItemRepository.REFRESH_BOOKINGS,
+                Map.of("time", Timestamp.valueOf(LocalDateTime.now())));
+        waitingBookingId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM booking WHERE booking_status = 'WAITING'",
+                Long.class);
+
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            comments.add(new Object[]{"comment" + i, ownerItemIds.get(i % ownerItemIds.size()), "user1",
+                    Timestamp.valueOf(time.minusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO comment (text, item_id, author_name, created) VALUES (?, ?, ?, ?)", comments);
+    }
+
+    private List<Long> ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SchemaIndexTest {
+    private final JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "SELECT * FROM booking b WHERE b.booker_id = 1 ORDER BY b.start_date DESC LIMIT 10",
+            "SELECT * FROM booking b WHERE b.booker_id = 1 AND b.start_date > CURRENT_TIMESTAMP ORDER BY b.start_date DESC LIMIT 10",
+            "SELECT * FROM booking b WHERE b.item_id = 1 ORDER BY b.end_date DESC",
+            "SELECT * FROM booking b WHERE b.booker_id = 1 AND b.item_id = 1",
+            "SELECT * FROM booking b WHERE b.item_id = 1 AND b.booking_status = 'APPROVED' "
+                    + "AND b.start_date < CURRENT_TIMESTAMP ORDER BY b.start_date DESC LIMIT 1",
+            "SELECT b.* FROM booking b JOIN items i ON b.item_id = i.id WHERE i.user_id = 1 ORDER BY b.start_date DESC",
+            "SELECT * FROM items i WHERE i.user_id = 1",
+            "SELECT * FROM items i WHERE i.request_id = 1",
+            "SELECT * FROM comment c WHERE c.item_id = 1",
+            "SELECT * FROM request r WHERE r.requester_id = 1 ORDER BY r.created DESC"
+    })
+    void finderQueriesShouldUseIndex(String query) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+
+        assertThat(plan, not(containsString("tableScan")));
+    }
+}
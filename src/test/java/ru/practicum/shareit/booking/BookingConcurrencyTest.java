@@ -0,0 +1,186 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConcurrentUpdateException;
+import ru.practicum.shareit.exception.ValidationItemException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    @SpyBean
+    private ItemViewCache itemViewCache;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCE.incrementAndGet();
+        owner = userService.create(new UserDto(null, "owner", "owner" + n + "@concurrency"));
+        booker = userService.create(new UserDto(null, "booker", "booker" + n + "@concurrency"));
+        item = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+    }
+
+    @Test
+    void update_shouldApproveExactlyOneOfOverlappingBookings() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(bookingRepository.save(new Booking(null, start.plusMinutes(i), start.plusHours(2),
+                    item, booker, BookingStatus.WAITING)).getId());
+        }
+
+        List<Callable<Booking>> approvals = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            approvals.add(() -> bookingService.update(bookingId, owner.getId(), true));
+        }
+
+        assertEquals(1, winners(approvals));
+        assertEquals(1, bookingIds.stream()
+                .filter(id -> bookingRepository.findById(id).orElseThrow().getStatus() == BookingStatus.APPROVED)
+                .count());
+    }
+
+    @Test
+    void update_shouldApplyExactlyOneDecisionToSameBooking() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = bookingRepository.save(new Booking(null, start, start.plusHours(2),
+                item, booker, BookingStatus.WAITING)).getId();
+
+        List<Callable<Booking>> decisions = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approved = i % 2 == 0;
+            decisions.add(() -> bookingService.update(bookingId, owner.getId(), approved));
+        }
+
+        assertEquals(1, winners(decisions));
+        Booking decided = bookingRepository.findById(bookingId).orElseThrow();
+        assertEquals(1L, decided.getVersion());
+    }
+
+    @Test
+    void create_shouldKeepEarliestNextBookingPointer() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Callable<Booking>> creates = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            LocalDateTime bookingStart = start.plusHours(THREADS - i);
+            creates.add(() -> bookingService.create(new BookingDto(null, bookingStart, bookingStart.plusMinutes(30),
+                    item.getId()), booker.getId()));
+        }
+
+        assertEquals(THREADS, winners(creates));
+        List<BookingShortView> pointers = bookingRepository.findBookingPointersByItemId(item.getId());
+        assertEquals(1, pointers.size());
+        assertEquals(start.plusHours(1), pointers.get(0).getStart());
+    }
+
+    @Test
+    void update_shouldRetryItemPatchRacingApproval() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = bookingRepository.save(new Booking(null, start, start.plusHours(2),
+                item, booker, BookingStatus.WAITING)).getId();
+        AtomicBoolean race = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (race.compareAndSet(true, false)) {
+                ExecutorService executor = Executors.newSingleThreadExecutor();
+                try {
+                    executor.submit(() -> bookingService.update(bookingId, owner.getId(), true))
+                            .get(5, TimeUnit.SECONDS);
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+            return invocation.callRealMethod();
+        }).when(itemViewCache).evict(anyLong());
+
+        Item updated = itemService.update(new ItemDto(null, "перфоратор", null, null, null),
+                item.getId(), owner.getId());
+
+        assertEquals("перфоратор", updated.getName());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+        Item stored = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals("перфоратор", stored.getName());
+        assertEquals(2L, stored.getVersion());
+    }
+
+    /**
+     * Запускает решения одновременно и возвращает число успешных. Проигравшие должны получить
+     * отказ по бизнес-правилу или конфликт после исчерпания повторов, но не любую другую ошибку.
+     */
+    private int winners(List<Callable<Booking>> decisions) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(decisions.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Booking>> results = new ArrayList<>();
+        try {
+            for (Callable<Booking> decision : decisions) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return decision.call();
+                }));
+            }
+            start.countDown();
+            int winners = 0;
+            for (Future<Booking> result : results) {
+                try {
+                    result.get();
+                    winners++;
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof ValidationItemException)
+                            && !(e.getCause() instanceof ConcurrentUpdateException)) {
+                        throw new AssertionError("Неожиданная ошибка решения", e.getCause());
+                    }
+                }
+            }
+            return winners;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -6,14 +6,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.bulkhead.Bulkhead;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.service.BookingExportService;
+import ru.practicum.shareit.booking.service.BookingImportService;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exporting.ExportWriter;
 import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.entity.User;
 
 import java.nio.charset.StandardCharsets;
@@ -23,16 +32,25 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static ru.practicum.shareit.AsyncMvc.perform;
 
 @WebMvcTest(controllers = BookingController.class)
+@Import(Bulkhead.class)
 public class BookingControllerTest {
     @Autowired
     ObjectMapper objectMapper;
     @MockBean
     BookingService bookingService;
+    @MockBean
+    BookingImportService bookingImportService;
+    @MockBean
+    BookingExportService bookingExportService;
+    @MockBean
+    ExportWriter exportWriter;
     @Autowired
     private MockMvc mvc;
 
@@ -72,7 +90,7 @@ public class BookingControllerTest {
         when(bookingService.create(any(),anyLong()))
                 .thenReturn(booking);
 
-        mvc.perform(post("/bookings")
+        perform(mvc, post("/bookings")
                     .content(objectMapper.writeValueAsString(bookingDto))
                     .contentType(MediaType.APPLICATION_JSON)
                     .header("X-Sharer-User-Id", 1))
@@ -91,7 +109,7 @@ public class BookingControllerTest {
         when(bookingService.getBookingByUser(anyLong(),anyLong()))
                 .thenReturn(booking);
 
-        mvc.perform(get("/bookings/1")
+        perform(mvc, get("/bookings/1")
                         .content(objectMapper.writeValueAsString(bookingDto))
                         .contentType(MediaType.APPLICATION_JSON)
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -110,10 +128,11 @@ public class BookingControllerTest {
     @Test
     void getAllBookingByUser_shouldCorrectlyReturnListOfBookings() {
         when(bookingService.getAllBookingByUser(any(Long.class), any(BookingStatus.class),
-                any(Integer.class), nullable(Integer.class)))
-                .thenReturn(List.of(booking));
+                any(Integer.class), nullable(Integer.class), nullable(String.class)))
+                .thenReturn(List.of(BookingMapper.bookingToResponseDto(booking)));
+        when(bookingService.countAllBookingByUser(1L, BookingStatus.ALL)).thenReturn(7L);
 
-        mvc.perform(get("/bookings")
+        perform(mvc, get("/bookings")
                         .content(objectMapper.writeValueAsString(bookingDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -121,6 +140,7 @@ public class BookingControllerTest {
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(Cursor.TOTAL_COUNT_HEADER, "7"))
                 .andExpect(jsonPath("$.[0].id", is(booking.getId()), Long.class))
                 .andExpect(jsonPath("$.[0].start",
                         is(booking.getStart().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))))
@@ -134,7 +154,7 @@ public class BookingControllerTest {
         when(bookingService.update(any(Long.class), any(Long.class), any(Boolean.class)))
                 .thenReturn(booking);
 
-        mvc.perform(patch("/bookings/1")
+        perform(mvc, patch("/bookings/1")
                         .content(objectMapper.writeValueAsString(bookingDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -154,10 +174,11 @@ public class BookingControllerTest {
     @Test
     void getAllBookingItemByUser_shouldCorrectlyReturnListOfBookingsByOwner() {
         when(bookingService.getAllBookingItemByUser(any(Long.class), any(BookingStatus.class),
-                any(Integer.class), nullable(Integer.class)))
-                .thenReturn(List.of(booking));
+                any(Integer.class), nullable(Integer.class), nullable(String.class)))
+                .thenReturn(List.of(BookingMapper.bookingToResponseDto(booking)));
+        when(bookingService.countAllBookingItemByUser(1L, BookingStatus.ALL)).thenReturn(12L);
 
-        mvc.perform(get("/bookings/owner?from=0&size=10")
+        perform(mvc, get("/bookings/owner?from=0&size=10")
                         .content(objectMapper.writeValueAsString(bookingDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -165,6 +186,7 @@ public class BookingControllerTest {
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(Cursor.TOTAL_COUNT_HEADER, "12"))
                 .andExpect(jsonPath("$.[0].id", is(booking.getId()), Long.class))
                 .andExpect(jsonPath("$.[0].start", is(booking.getStart()
                         .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))))
@@ -172,4 +194,48 @@ public class BookingControllerTest {
                         .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))));
     }
 
+    @SneakyThrows
+    @Test
+    void updateAll_shouldReturnOutcomePerBooking() {
+        when(bookingService.updateAll(any(BookingDecisionDto.class), anyLong()))
+                .thenReturn(List.of(new BookingDecisionResultDto(1L, BookingStatus.APPROVED, null),
+                        new BookingDecisionResultDto(2L, null, "Обновление запроса 2 невозможно, нет бронирования.")));
+
+        perform(mvc, patch("/bookings")
+                        .content(objectMapper.writeValueAsString(new BookingDecisionDto(List.of(1L, 2L), true)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$.[1].error", is("Обновление запроса 2 невозможно, нет бронирования.")));
+    }
+
+    @SneakyThrows
+    @Test
+    void updateAll_shouldRejectEmptyBookingList() {
+        perform(mvc, patch("/bookings")
+                        .content(objectMapper.writeValueAsString(new BookingDecisionDto(List.of(), true)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllBookingByUser_shouldRejectNegativeOffsetAndNonPositiveSize() {
+        perform(mvc, get("/bookings")
+                        .param("from", "-1")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.from").exists());
+        perform(mvc, get("/bookings/owner")
+                        .param("size", "0")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.size").exists());
+
+        verifyNoInteractions(bookingService);
+    }
 }
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.QueryCounter;
+import ru.practicum.shareit.QueryDataset;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMvc.perform;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Import({QueryCounter.class, QueryDataset.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingDecisionTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private final MockMvc mvc;
+    private final ObjectMapper objectMapper;
+    private final QueryCounter queryCounter;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingRepository bookingRepository;
+
+    @SneakyThrows
+    @Test
+    void updateAll_shouldApplyRulesPerBookingInRequestOrder() {
+        int n = SEQUENCE.incrementAndGet();
+        LocalDateTime time = LocalDateTime.now().plusDays(1);
+        User owner = userService.create(new UserDto(null, "owner", "owner" + n + "@decision"));
+        User other = userService.create(new UserDto(null, "other", "other" + n + "@decision"));
+        User booker = userService.create(new UserDto(null, "booker", "booker" + n + "@decision"));
+        Item drill = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        Item saw = itemService.create(new ItemDto(null, "пила", "цепная", true, null), owner.getId());
+        Item foreign = itemService.create(new ItemDto(null, "молоток", "слесарный", true, null), other.getId());
+        Booking first = booking(drill, booker, time, time.plusHours(2), BookingStatus.WAITING);
+        Booking overlapping = booking(drill, booker, time.plusHours(1), time.plusHours(3), BookingStatus.WAITING);
+        Booking otherItem = booking(saw, booker, time, time.plusHours(2), BookingStatus.WAITING);
+        Booking processed = booking(saw, booker, time.plusDays(1), time.plusDays(2), BookingStatus.REJECTED);
+        Booking notOwned = booking(foreign, booker, time, time.plusHours(2), BookingStatus.WAITING);
+        List<Long> ids = List.of(overlapping.getId(), first.getId(), otherItem.getId(), processed.getId(),
+                notOwned.getId(), Long.MAX_VALUE, first.getId());
+
+        queryCounter.reset();
+        perform(mvc, patch("/bookings").header(HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingDecisionDto(ids, true))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(6)))
+                .andExpect(jsonPath("$.[0].id", is(overlapping.getId()), Long.class))
+                .andExpect(jsonPath("$.[0].status", is("WAITING")))
+                .andExpect(jsonPath("$.[0].error", is("Предмет " + drill.getId() + " уже забронирован на это время")))
+                .andExpect(jsonPath("$.[1].status", is("APPROVED")))
+                .andExpect(jsonPath("$.[1].error", nullValue()))
+                .andExpect(jsonPath("$.[2].status", is("APPROVED")))
+                .andExpect(jsonPath("$.[3].status", is("REJECTED")))
+                .andExpect(jsonPath("$.[3].error", is("Обновление запроса " + processed.getId() + " невозможно, запрос обработан")))
+                .andExpect(jsonPath("$.[4].status", nullValue()))
+                .andExpect(jsonPath("$.[4].error", is("Обновление запроса " + notOwned.getId() + " невозможно, нет доступа.")))
+                .andExpect(jsonPath("$.[5].error", is("Обновление запроса " + Long.MAX_VALUE + " невозможно, нет бронирования.")));
+        assertEquals(4, queryCounter.getStatements());
+
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(overlapping.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(otherItem.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(notOwned.getId()).orElseThrow().getStatus());
+    }
+
+    @SneakyThrows
+    @Test
+    void updateAll_shouldRejectManyBookingsWithTwoStatements() {
+        int n = SEQUENCE.incrementAndGet();
+        LocalDateTime time = LocalDateTime.now().plusDays(1);
+        User owner = userService.create(new UserDto(null, "owner", "owner" + n + "@decision"));
+        User booker = userService.create(new UserDto(null, "booker", "booker" + n + "@decision"));
+        Item drill = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(booking(drill, booker, time.plusHours(i), time.plusHours(i + 1), BookingStatus.WAITING).getId());
+        }
+
+        queryCounter.reset();
+        perform(mvc, patch("/bookings").header(HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookingDecisionDto(ids, false))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(100)))
+                .andExpect(jsonPath("$.[99].status", is("REJECTED")));
+        assertEquals(2, queryCounter.getStatements());
+    }
+
+    private Booking booking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.saveAndFlush(new Booking(null, start, end, item, booker, status));
+    }
+}
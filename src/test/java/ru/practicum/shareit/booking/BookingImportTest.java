@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.repository.BookingBatchRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.importing.ImportReader;
+import ru.practicum.shareit.item.dto.ItemDataDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMvc.perform;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingImportTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private final String mail = "@import" + SEQUENCE.incrementAndGet();
+    private final MockMvc mvc;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingRepository bookingRepository;
+    @SpyBean
+    private BookingBatchRepository bookingBatchRepository;
+
+    @SneakyThrows
+    @Test
+    void importBookings_shouldApplyCreateRulesPerRow() {
+        LocalDateTime time = LocalDateTime.now().withNano(0);
+        User owner = userService.create(new UserDto(null, "owner", "owner" + mail));
+        User booker = userService.create(new UserDto(null, "booker", "booker" + mail));
+        Item item = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        Item unavailable = itemService.create(new ItemDto(null, "пила", "цепная", false, null), owner.getId());
+        bookingRepository.save(new Booking(null, time.plusDays(10), time.plusDays(12), item, owner, BookingStatus.APPROVED));
+
+        perform(mvc, post("/bookings/import").header(HEADER, booker.getId())
+                        .contentType(ImportReader.APPLICATION_NDJSON_VALUE)
+                        .content(row(item.getId(), time.plusDays(1), time.plusDays(2))
+                                + row(item.getId(), time.plusDays(11), time.plusDays(13))
+                                + row(unavailable.getId(), time.plusDays(1), time.plusDays(2))
+                                + row(item.getId(), time.minusDays(1), time.plusDays(2))
+                                + row(Long.MAX_VALUE, time.plusDays(1), time.plusDays(2))
+                                + row(item.getId(), time.plusDays(3), time.plusDays(4))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(6)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.errors[*].row", is(List.of(2, 3, 4, 5))));
+
+        perform(mvc, post("/bookings/import").header(HEADER, owner.getId())
+                        .contentType(ImportReader.APPLICATION_NDJSON_VALUE)
+                        .content(row(item.getId(), time.plusDays(5), time.plusDays(6))))
+                .andExpect(jsonPath("$.imported", is(0)));
+
+        ItemDataDto ownerView = itemService.getItemById(item.getId(), owner.getId());
+        assertEquals(time.plusDays(1), ownerView.getNextBooking().getStart());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(ownerView.getNextBooking().getId())
+                .orElseThrow().getStatus());
+    }
+
+    @SneakyThrows
+    @Test
+    void importBookings_shouldRetryChunkRowByRowOnDuplicateKey() {
+        LocalDateTime time = LocalDateTime.now().withNano(0);
+        User owner = userService.create(new UserDto(null, "owner", "owner" + mail));
+        User booker = userService.create(new UserDto(null, "booker", "booker" + mail));
+        Item item = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        LocalDateTime conflicting = time.plusDays(1);
+        doAnswer(invocation -> {
+            List<BookingDto> bookings = invocation.getArgument(0);
+            if (bookings.stream().anyMatch(b -> b.getStart().equals(conflicting))) {
+                throw new DuplicateKeyException("booking_pkey");
+            }
+            return invocation.callRealMethod();
+        }).when(bookingBatchRepository).insertAll(any(), anyLong());
+
+        perform(mvc, post("/bookings/import").header(HEADER, booker.getId())
+                        .contentType(ImportReader.APPLICATION_NDJSON_VALUE)
+                        .content(row(item.getId(), time.plusDays(3), time.plusDays(4))
+                                + row(item.getId(), conflicting, time.plusDays(2))
+                                + row(item.getId(), time.plusDays(5), time.plusDays(6))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.errors[*].row", is(List.of(2))));
+
+        assertEquals(2, bookingRepository.findByItemIdInAndStatusAndEndAfter(List.of(item.getId()),
+                BookingStatus.WAITING, time).size());
+        assertEquals(time.plusDays(3), itemService.getItemById(item.getId(), owner.getId()).getNextBooking().getStart());
+    }
+
+    @SneakyThrows
+    @Test
+    void importBookings_shouldReportRowViolatingForeignKey() {
+        LocalDateTime time = LocalDateTime.now().withNano(0);
+        User owner = userService.create(new UserDto(null, "owner", "owner" + mail));
+        User booker = userService.create(new UserDto(null, "booker", "booker" + mail));
+        Item item = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        LocalDateTime orphan = time.plusDays(1);
+        doAnswer(invocation -> {
+            List<BookingDto> bookings = invocation.getArgument(0);
+            bookings.stream().filter(b -> b.getStart().equals(orphan)).forEach(b -> b.setItemId(Long.MAX_VALUE));
+            return invocation.callRealMethod();
+        }).when(bookingBatchRepository).insertAll(any(), anyLong());
+
+        perform(mvc, post("/bookings/import").header(HEADER, booker.getId())
+                        .contentType(ImportReader.APPLICATION_NDJSON_VALUE)
+                        .content(row(item.getId(), time.plusDays(3), time.plusDays(4))
+                                + row(item.getId(), orphan, time.plusDays(2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[*].row", is(List.of(2))))
+                .andExpect(jsonPath("$.errors[0].message",
+                        is("Строка не записана: нарушено ограничение целостности данных")));
+
+        assertEquals(time.plusDays(3), itemService.getItemById(item.getId(), owner.getId()).getNextBooking().getStart());
+    }
+
+    private static String row(Long itemId, LocalDateTime start, LocalDateTime end) {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        return "{\"itemId\": " + itemId + ", \"start\": \"" + start.format(formatter)
+                + "\", \"end\": \"" + end.format(formatter) + "\"}\n";
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.QueryBudget;
+import ru.practicum.shareit.QueryCounter;
+import ru.practicum.shareit.QueryDataset;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Import({QueryCounter.class, QueryDataset.class, QueryBudget.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingQueryBudgetTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private final QueryDataset dataset;
+    private final QueryBudget budget;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1_000, 10_000})
+    void bookingEndpoints_shouldStayWithinQueryBudget(int size) {
+        dataset.load(size);
+        Long bookerId = dataset.getBookerId();
+        Long ownerId = dataset.getOwnerId();
+        LocalDateTime time = LocalDateTime.now();
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+        List<Executable> checks = new ArrayList<>();
+        checks.add(budget.check("POST /bookings", post("/bookings").header(HEADER, bookerId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemId\": " + dataset.getFreeItemId()
+                        + ", \"start\": \"" + time.plusDays(1).format(formatter)
+                        + "\", \"end\": \"" + time.plusDays(2).format(formatter) + "\"}"), 5, 4));
+        checks.add(budget.check("GET /bookings/{id}", get("/bookings/{id}", dataset.getWaitingBookingId())
+                .header(HEADER, bookerId), 1, 1));
+        checks.add(budget.check("PATCH /bookings/{id}", patch("/bookings/{id}", dataset.getWaitingBookingId())
+                .header(HEADER, ownerId).param("approved", "true"), 4, 2));
+        for (BookingStatus state : List.of(BookingStatus.ALL, BookingStatus.CURRENT, BookingStatus.PAST,
+                BookingStatus.FUTURE, BookingStatus.WAITING, BookingStatus.REJECTED)) {
+            checks.add(budget.check("GET /bookings?state=" + state, get("/bookings").header(HEADER, bookerId)
+                    .param("state", state.name()), 3, 12));
+            checks.add(budget.check("GET /bookings/owner?state=" + state, get("/bookings/owner").header(HEADER, ownerId)
+                    .param("state", state.name()), 3, 12));
+        }
+        assertAll(checks);
+    }
+}
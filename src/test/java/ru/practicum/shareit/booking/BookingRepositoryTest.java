@@ -5,12 +5,34 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.EmptyResultSet;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationItemException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
 
 import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @Transactional
@@ -18,10 +40,120 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class BookingRepositoryTest {
     private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final UserService userService;
+    private final ItemService itemService;
 
     @Test
     void shouldThrowExceptionIfWrongId() {
         assertThrows(NotFoundException.class,
                 () -> bookingService.getBookingByUser(999L, 1L));
     }
+
+    @Test
+    @DirtiesContext
+    void shouldFilterBookingsByStateInQuery() {
+        LocalDateTime time = LocalDateTime.now();
+        User owner = userService.create(new UserDto(null, "owner", "owner@email"));
+        User booker = userService.create(new UserDto(null, "booker", "booker@email"));
+        Item item = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        for (int i = 1; i <= 12; i++) {
+            bookingRepository.save(new Booking(null, time.minusDays(i + 1), time.minusDays(i), item, booker, BookingStatus.APPROVED));
+        }
+        bookingRepository.save(new Booking(null, time.minusDays(1), time.plusDays(1), item, booker, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, time.plusDays(1), time.plusDays(2), item, booker, BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null, time.plusDays(3), time.plusDays(4), item, booker, BookingStatus.REJECTED));
+
+        assertEquals(1, bookingService.getAllBookingByUser(booker.getId(), BookingStatus.CURRENT, 0, 10, null).size());
+        assertEquals(10, bookingService.getAllBookingByUser(booker.getId(), BookingStatus.PAST, 0, 10, null).size());
+        assertEquals(2, bookingService.getAllBookingByUser(booker.getId(), BookingStatus.PAST, 10, 10, null).size());
+        assertEquals(2, bookingService.getAllBookingItemByUser(owner.getId(), BookingStatus.FUTURE, 0, 10, null).size());
+        assertEquals(1, bookingService.getAllBookingItemByUser(owner.getId(), BookingStatus.WAITING, 0, 10, null).size());
+        assertEquals(1, bookingService.getAllBookingItemByUser(owner.getId(), BookingStatus.REJECTED, 0, 10, null).size());
+        assertEquals(1, bookingService.countAllBookingByUser(booker.getId(), BookingStatus.CURRENT));
+        assertEquals(12, bookingService.countAllBookingByUser(booker.getId(), BookingStatus.PAST));
+        assertEquals(15, bookingService.countAllBookingItemByUser(owner.getId(), BookingStatus.ALL));
+        assertEquals(2, bookingService.countAllBookingItemByUser(owner.getId(), BookingStatus.FUTURE));
+        assertEquals(1, bookingService.countAllBookingItemByUser(owner.getId(), BookingStatus.WAITING));
+        assertThrows(EmptyResultSet.class,
+                () -> bookingService.getAllBookingItemByUser(booker.getId(), BookingStatus.FUTURE, 0, 10, null));
+        assertEquals(12, bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(booker.getId(), time,
+                Cursor.FIRST.getKey(), Cursor.FIRST.getId(), PageRequest.of(0, 100)).size());
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldRejectBookingOverlappingApprovedOne() {
+        LocalDateTime time = LocalDateTime.now();
+        User owner = userService.create(new UserDto(null, "owner", "owner@email"));
+        User booker = userService.create(new UserDto(null, "booker", "booker@email"));
+        Item item = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        bookingRepository.save(new Booking(null, time.plusDays(1), time.plusDays(2), item, booker, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, time.plusDays(5), time.plusDays(6), item, booker, BookingStatus.APPROVED));
+        Booking waiting = bookingRepository.save(new Booking(null, time.plusDays(4), time.plusDays(5).plusHours(1),
+                item, booker, BookingStatus.WAITING));
+
+        assertThrows(ValidationItemException.class, () -> bookingService.create(
+                new BookingDto(null, time.plusDays(1).plusHours(12), time.plusDays(3), item.getId()), booker.getId()));
+        assertThrows(ValidationItemException.class, () -> bookingService.update(waiting.getId(), owner.getId(), true));
+        assertEquals(BookingStatus.WAITING, bookingService.create(
+                new BookingDto(null, time.plusDays(2), time.plusDays(3), item.getId()), booker.getId()).getStatus());
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldPageBookingsByCursorWithoutGapsOrDuplicates() {
+        LocalDateTime time = LocalDateTime.now().withNano(0);
+        User owner = userService.create(new UserDto(null, "owner", "owner@email"));
+        User booker = userService.create(new UserDto(null, "booker", "booker@email"));
+        Item item = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        for (int i = 0; i < 12; i++) {
+            bookingRepository.save(new Booking(null, time.minusDays(i / 3 + 1), time.minusDays(i / 3),
+                    item, booker, BookingStatus.APPROVED));
+        }
+
+        List<BookingResponseDto> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            List<BookingResponseDto> page = bookingService.getAllBookingByUser(booker.getId(), BookingStatus.ALL,
+                    0, 5, cursor);
+            all.addAll(page);
+            BookingResponseDto last = page.get(page.size() - 1);
+            cursor = page.size() < 5 ? null : new Cursor(last.getStart(), last.getId()).encode();
+        } while (cursor != null);
+
+        assertEquals(12, all.size());
+        assertEquals(12, all.stream().map(BookingResponseDto::getId).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            BookingResponseDto prev = all.get(i - 1);
+            BookingResponseDto next = all.get(i);
+            assertTrue(prev.getStart().isAfter(next.getStart())
+                    || prev.getStart().isEqual(next.getStart()) && prev.getId() > next.getId());
+        }
+        assertThrows(ValidationItemException.class, () -> bookingService.getAllBookingByUser(booker.getId(),
+                BookingStatus.ALL, 0, 5, "не-курсор"));
+    }
+
+    @Test
+    void findLastAndNextByOwnerId_shouldBreakTiesLikeSingleItemQueries() {
+        LocalDateTime time = LocalDateTime.now().withNano(0);
+        long n = System.nanoTime();
+        User owner = userService.create(new UserDto(null, "owner", "owner" + n + "@email"));
+        User booker = userService.create(new UserDto(null, "booker", "booker" + n + "@email"));
+        Item item = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        for (int i = 0; i < 3; i++) {
+            bookingRepository.save(new Booking(null, time.minusDays(2), time.minusDays(1), item, booker, BookingStatus.APPROVED));
+            bookingRepository.save(new Booking(null, time.plusDays(1), time.plusDays(2), item, booker, BookingStatus.WAITING));
+        }
+
+        List<BookingShortView> views = bookingRepository.findLastAndNextByOwnerId(owner.getId(), time);
+
+        assertEquals(2, views.size());
+        for (BookingShortView view : views) {
+            BookingShortView expected = view.getLast()
+                    ? bookingRepository.findLastByItemId(item.getId(), time).orElseThrow()
+                    : bookingRepository.findNextByItemId(item.getId(), time).orElseThrow();
+            assertEquals(expected.getId(), view.getId());
+        }
+    }
 }
@@ -5,17 +5,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConcurrentUpdateException;
 import ru.practicum.shareit.exception.EmptyResultSet;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnknownState;
 import ru.practicum.shareit.exception.ValidationItemException;
 import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemBatchRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -28,8 +35,12 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,8 +60,8 @@ public class BookingServiceTest {
     );
     private final BookingDto bookingDto = new BookingDto(
             1L,
-            LocalDateTime.of(2024, 10, 10, 10, 10, 0),
-            LocalDateTime.of(2024, 12, 10, 10, 10, 0),
+            LocalDateTime.now().plusDays(1),
+            LocalDateTime.now().plusDays(2),
             item.getId()
     );
     private final Booking booking = new Booking(
@@ -82,12 +93,19 @@ public class BookingServiceTest {
     @Mock
     ItemRepository itemRepository;
     @Mock
+    ItemBatchRepository itemBatchRepository;
+    @Mock
     UserService userService;
+    @Mock
+    ItemViewCache itemViewCache;
+    @Mock
+    PlatformTransactionManager transactionManager;
     BookingService bookingService;
 
     @BeforeEach
     void init() {
-        bookingService = new BookingService(bookingRepository, itemRepository, userService);
+        bookingService = new BookingService(bookingRepository, itemRepository, itemBatchRepository, userService, itemViewCache,
+                new TransactionTemplate(transactionManager));
     }
 
     @Test
@@ -115,8 +133,8 @@ public class BookingServiceTest {
     void create_shouldThrowExceptionWhenItemAvailableFalse() {
         BookingDto bookingDtoFalse = new BookingDto(
                 2L,
-                LocalDateTime.of(2024, 10, 10, 10, 10, 0),
-                LocalDateTime.of(2024, 12, 10, 10, 10, 0),
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
                 itemAvailableFalse.getId()
         );
         when(userService.getById(anyLong()))
@@ -141,6 +159,87 @@ public class BookingServiceTest {
                 () -> bookingService.create(bookingDto, user.getId()));
     }
 
+    @Test
+    void create_shouldThrowExceptionWhenApprovedBookingOverlaps() {
+        User booker = new User(2L, "booker", "booker@email");
+        Booking approved = new Booking(3L, bookingDto.getStart().minusHours(1), bookingDto.getStart().plusHours(1),
+                item, booker, BookingStatus.APPROVED);
+        when(userService.getById(anyLong()))
+                .thenReturn(booker);
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.of(item));
+        when(bookingRepository.findFirstByItem_IdAndStatusAndStartBeforeOrderByStartDesc(item.getId(),
+                BookingStatus.APPROVED, bookingDto.getEnd()))
+                .thenReturn(Optional.of(approved));
+
+        assertThrows(ValidationItemException.class,
+                () -> bookingService.create(bookingDto, booker.getId()));
+    }
+
+    @Test
+    void create_shouldSaveBookingWhenApprovedBookingEndsBeforeStart() {
+        User booker = new User(2L, "booker", "booker@email");
+        Booking approved = new Booking(3L, bookingDto.getStart().minusHours(2), bookingDto.getStart(),
+                item, booker, BookingStatus.APPROVED);
+        when(userService.getById(anyLong()))
+                .thenReturn(booker);
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.of(item));
+        when(bookingRepository.findFirstByItem_IdAndStatusAndStartBeforeOrderByStartDesc(any(), any(), any()))
+                .thenReturn(Optional.of(approved));
+        when(bookingRepository.save(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(bookingService.create(bookingDto, booker.getId()).getStatus(), equalTo(BookingStatus.WAITING));
+    }
+
+    @Test
+    void update_shouldThrowExceptionWhenApprovingOverlappingBooking() {
+        Booking approved = new Booking(3L, bookingWaiting.getStart().plusDays(1), bookingWaiting.getEnd().plusDays(1),
+                item, user, BookingStatus.APPROVED);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(bookingWaiting));
+        when(bookingRepository.findFirstByItem_IdAndStatusAndStartBeforeOrderByStartDesc(any(), any(), any()))
+                .thenReturn(Optional.of(approved));
+
+        assertThrows(ValidationItemException.class,
+                () -> bookingService.update(bookingWaiting.getId(), user.getId(), true));
+    }
+
+    @Test
+    void update_shouldRetryApprovalWhenItemVersionConflicts() {
+        item.setVersion(0L);
+        bookingWaiting.setVersion(0L);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(bookingWaiting));
+        when(itemRepository.incrementVersion(item.getId(), 0L)).thenReturn(0, 1);
+        when(bookingRepository.updateStatusIfWaiting(bookingWaiting.getId(), BookingStatus.APPROVED)).thenReturn(1);
+
+        Booking approved = bookingService.update(bookingWaiting.getId(), user.getId(), true);
+
+        assertThat(approved.getStatus(), equalTo(BookingStatus.APPROVED));
+        assertThat(approved.getVersion(), equalTo(1L));
+        verify(bookingRepository, times(2)).findById(bookingWaiting.getId());
+    }
+
+    @Test
+    void update_shouldThrowConflictWhenRetriesAreExhausted() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(bookingWaiting));
+        when(itemRepository.incrementVersion(any(), any())).thenReturn(0);
+
+        assertThrows(ConcurrentUpdateException.class,
+                () -> bookingService.update(bookingWaiting.getId(), user.getId(), true));
+        verify(bookingRepository, times(3)).findById(bookingWaiting.getId());
+        verify(bookingRepository, never()).updateStatusIfWaiting(any(), any());
+    }
+
+    @Test
+    void update_shouldThrowExceptionWhenDecidedConcurrently() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(bookingWaiting));
+        when(bookingRepository.updateStatusIfWaiting(bookingWaiting.getId(), BookingStatus.REJECTED)).thenReturn(0);
+
+        assertThrows(ValidationItemException.class,
+                () -> bookingService.update(bookingWaiting.getId(), user.getId(), false));
+    }
+
     @Test
     void update_shouldThrowExceptionWhenUpdateWrongId() {
         assertThrows(NotFoundException.class,
@@ -183,11 +282,11 @@ public class BookingServiceTest {
                 user,
                 BookingStatus.REJECTED
         );
-        when(bookingRepository.findByItem_User_IdOrderByStartDesc(any(), any()))
-                .thenReturn(List.of(bookingCurrent));
+        when(bookingRepository.findByItem_User_IdAndStartBeforeAndEndAfterOrderByStartDesc(any(), any(), any(), any(), any()))
+                .thenReturn(List.of(BookingMapper.bookingToResponseDto(bookingCurrent)));
 
-        Collection<Booking> bookings = bookingService.getAllBookingItemByUser(user.getId(),
-                BookingStatus.CURRENT, 0, 10);
+        Collection<BookingResponseDto> bookings = bookingService.getAllBookingItemByUser(user.getId(),
+                BookingStatus.CURRENT, 0, 10, null);
 
         assertFalse(bookings.isEmpty());
     }
@@ -202,11 +301,11 @@ public class BookingServiceTest {
                 user,
                 BookingStatus.REJECTED
         );
-        when(bookingRepository.findByItem_User_IdOrderByStartDesc(any(), any()))
-                .thenReturn(List.of(bookingCurrent));
+        when(bookingRepository.findByItem_User_IdAndStatusOrderByStartDesc(any(), any(), any(), any(), any()))
+                .thenReturn(List.of(BookingMapper.bookingToResponseDto(bookingCurrent)));
 
-        Collection<Booking> bookings = bookingService.getAllBookingItemByUser(user.getId(),
-                BookingStatus.REJECTED, 0, 10);
+        Collection<BookingResponseDto> bookings = bookingService.getAllBookingItemByUser(user.getId(),
+                BookingStatus.REJECTED, 0, 10, null);
 
         assertFalse(bookings.isEmpty());
     }
@@ -221,11 +320,11 @@ public class BookingServiceTest {
                 user,
                 BookingStatus.WAITING
         );
-        when(bookingRepository.findByItem_User_IdOrderByStartDesc(any(), any()))
-                .thenReturn(List.of(bookingCurrent));
+        when(bookingRepository.findByItem_User_IdAndStatusOrderByStartDesc(any(), any(), any(), any(), any()))
+                .thenReturn(List.of(BookingMapper.bookingToResponseDto(bookingCurrent)));
 
-        Collection<Booking> bookings = bookingService.getAllBookingItemByUser(user.getId(),
-                BookingStatus.WAITING, 0, 10);
+        Collection<BookingResponseDto> bookings = bookingService.getAllBookingItemByUser(user.getId(),
+                BookingStatus.WAITING, 0, 10, null);
 
         assertFalse(bookings.isEmpty());
     }
@@ -240,49 +339,47 @@ public class BookingServiceTest {
                 user,
                 BookingStatus.WAITING
         );
-        when(bookingRepository.findByItem_User_IdOrderByStartDesc(any(), any()))
-                .thenReturn(List.of(bookingCurrent));
+        when(bookingRepository.findByItem_User_IdOrderByStartDesc(any(), any(), any(), any()))
+                .thenReturn(List.of(BookingMapper.bookingToResponseDto(bookingCurrent)));
 
-        Collection<Booking> bookings = bookingService.getAllBookingItemByUser(user.getId(),
-                BookingStatus.ALL, 0, 10);
+        Collection<BookingResponseDto> bookings = bookingService.getAllBookingItemByUser(user.getId(),
+                BookingStatus.ALL, 0, 10, null);
 
         assertFalse(bookings.isEmpty());
     }
 
     @Test
     void getAllBookingItemByUser_shouldThrowExceptionWhenStateIsUnsupported() {
-        Booking bookingCurrent = new Booking(
-                3L,
-                LocalDateTime.of(2023, 10, 10, 10, 10, 0),
-                LocalDateTime.of(2024, 12, 10, 10, 10, 0),
-                item,
-                user,
-                BookingStatus.WAITING
-        );
-        when(bookingRepository.findByItem_User_IdOrderByStartDesc(any(), any()))
-                .thenReturn(List.of(bookingCurrent));
-
-
         assertThrows(UnknownState.class,
                 () -> bookingService.getAllBookingItemByUser(user.getId(),
-                        BookingStatus.UNSUPPORTED_STATUS, 0, 10));
+                        BookingStatus.UNSUPPORTED_STATUS, 0, 10, null));
     }
 
     @Test
     void getAllBookingByUser_shouldThrowExceptionWhenNoBookings() {
-        when(bookingRepository.findByBookerIdOrderByStartDesc(anyLong(), any()))
+        when(bookingRepository.findByBookerIdOrderByStartDesc(anyLong(), any(), any(), any()))
                 .thenReturn(List.of());
 
         assertThrows(EmptyResultSet.class,
-                () -> bookingService.getAllBookingByUser(1L, BookingStatus.ALL, 1, 1));
+                () -> bookingService.getAllBookingByUser(1L, BookingStatus.ALL, 1, 1, null));
+    }
+
+    @Test
+    void getAllBookingByUser_shouldReturnEmptyListWhenNoBookingsInState() {
+        when(bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+        when(bookingRepository.existsByBookerId(anyLong()))
+                .thenReturn(true);
+
+        assertTrue(bookingService.getAllBookingByUser(1L, BookingStatus.FUTURE, 0, 10, null).isEmpty());
     }
 
     @Test
     void getAllBookingByUser_shouldReturnBookings() {
-        when(bookingRepository.findByBookerIdOrderByStartDesc(anyLong(), any()))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerIdOrderByStartDesc(anyLong(), any(), any(), any()))
+                .thenReturn(List.of(BookingMapper.bookingToResponseDto(booking)));
 
-        assertFalse(bookingService.getAllBookingByUser(1L, BookingStatus.ALL, 1, 1).isEmpty());
+        assertFalse(bookingService.getAllBookingByUser(1L, BookingStatus.ALL, 1, 1, null).isEmpty());
     }
 
 }
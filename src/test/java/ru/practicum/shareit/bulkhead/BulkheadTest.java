@@ -0,0 +1,209 @@
+package ru.practicum.shareit.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkheadTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("shareit.bulkhead.users.threads", "1")
+                .withProperty("shareit.bulkhead.users.queue-capacity", "1");
+        bulkhead = new Bulkhead(environment, mock(ObjectProvider.class), mock(ObjectProvider.class));
+        bulkhead.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkhead.destroy();
+    }
+
+    @Test
+    void supply_shouldRejectWhenThreadsAndQueueAreBusy() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = bulkhead.supply(Subsystem.USERS, () -> {
+            started.countDown();
+            return await();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = bulkhead.supply(Subsystem.USERS, this::await);
+
+        assertThrows(ServiceOverloadedException.class, () -> bulkhead.supply(Subsystem.USERS, this::await));
+        assertEquals(1.0, registry.get("executor.queued").tag("subsystem", "users").gauge().value());
+        assertEquals(1.0, registry.get("shareit.bulkhead.rejected").tag("subsystem", "users").functionCounter().count());
+
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("done", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void supply_shouldServeOtherSubsystemsWhenOneIsSaturated() throws Exception {
+        bulkhead.supply(Subsystem.USERS, this::await);
+        bulkhead.supply(Subsystem.USERS, this::await);
+        assertThrows(ServiceOverloadedException.class, () -> bulkhead.supply(Subsystem.USERS, this::await));
+
+        assertEquals("booking", bulkhead.supply(Subsystem.BOOKINGS, () -> "booking").get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, registry.get("shareit.bulkhead.rejected").tag("subsystem", "bookings").functionCounter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void supply_shouldRejectTaskThatWaitedInQueueTooLong() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("shareit.bulkhead.users.threads", "1")
+                .withProperty("shareit.bulkhead.users.queue-timeout-ms", "50");
+        Bulkhead expiring = new Bulkhead(environment, mock(ObjectProvider.class), mock(ObjectProvider.class));
+        SimpleMeterRegistry expiringRegistry = new SimpleMeterRegistry();
+        expiring.bindTo(expiringRegistry);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CompletableFuture<String> running = expiring.supply(Subsystem.USERS, () -> {
+                started.countDown();
+                return await();
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = expiring.supply(Subsystem.USERS, () -> "late");
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("done", running.get(5, TimeUnit.SECONDS));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof ServiceOverloadedException);
+            assertEquals(1.0, expiringRegistry.get("shareit.bulkhead.rejected").tag("subsystem", "users")
+                    .functionCounter().count());
+        } finally {
+            expiring.destroy();
+        }
+    }
+
+    @Test
+    void supply_shouldStartThreadPerTaskAndLimitConcurrencyWithThreadFactory() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        ThreadFactory platform = Executors.defaultThreadFactory();
+        Bulkhead perTask = threadPerTask(new MockEnvironment()
+                .withProperty("shareit.bulkhead.users.threads", "1")
+                .withProperty("shareit.bulkhead.users.queue-capacity", "1"), runnable -> {
+            created.incrementAndGet();
+            return platform.newThread(runnable);
+        });
+        SimpleMeterRegistry perTaskRegistry = new SimpleMeterRegistry();
+        perTask.bindTo(perTaskRegistry);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CompletableFuture<String> running = perTask.supply(Subsystem.USERS, () -> {
+                started.countDown();
+                return await();
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = perTask.supply(Subsystem.USERS, this::await);
+
+            assertThrows(ServiceOverloadedException.class, () -> perTask.supply(Subsystem.USERS, this::await));
+            assertEquals(1.0, perTaskRegistry.get("executor.active").tag("subsystem", "users").gauge().value());
+            assertEquals(1.0, perTaskRegistry.get("executor.queued").tag("subsystem", "users").gauge().value());
+
+            release.countDown();
+            assertEquals("done", running.get(5, TimeUnit.SECONDS));
+            assertEquals("done", queued.get(5, TimeUnit.SECONDS));
+            assertEquals("again", perTask.supply(Subsystem.USERS, () -> "again").get(5, TimeUnit.SECONDS));
+            assertEquals(3, created.get());
+        } finally {
+            perTask.destroy();
+        }
+    }
+
+    @Test
+    void supply_shouldRejectTaskThatWaitedForPermitTooLongWithThreadFactory() throws Exception {
+        Bulkhead perTask = threadPerTask(new MockEnvironment()
+                .withProperty("shareit.bulkhead.users.threads", "1")
+                .withProperty("shareit.bulkhead.users.queue-timeout-ms", "50"), Executors.defaultThreadFactory());
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CompletableFuture<String> running = perTask.supply(Subsystem.USERS, () -> {
+                started.countDown();
+                return await();
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = perTask.supply(Subsystem.USERS, () -> "late");
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof ServiceOverloadedException);
+            release.countDown();
+            assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        } finally {
+            perTask.destroy();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void defer_shouldUseSubsystemRequestTimeoutAndPassCheckedExceptions() throws Exception {
+        Bulkhead imports = new Bulkhead(new MockEnvironment()
+                .withProperty("shareit.bulkhead.imports.request-timeout-ms", "1800000"),
+                mock(ObjectProvider.class), mock(ObjectProvider.class));
+        try {
+            DeferredResult<String> failed = imports.defer(Subsystem.IMPORTS, () -> {
+                throw new IOException("обрыв");
+            });
+            DeferredResult<String> done = imports.defer(Subsystem.IMPORTS, () -> "done");
+
+            assertEquals(1_800_000L, ReflectionTestUtils.getField(failed, "timeoutValue"));
+            assertTrue(waitFor(failed).getResult() instanceof IOException);
+            assertEquals("done", waitFor(done).getResult());
+        } finally {
+            imports.destroy();
+        }
+    }
+
+    private static <T> DeferredResult<T> waitFor(DeferredResult<T> result) throws InterruptedException {
+        for (int i = 0; i < 500 && !result.hasResult(); i++) {
+            Thread.sleep(10);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Bulkhead threadPerTask(MockEnvironment environment, ThreadFactory threadFactory) {
+        ObjectProvider<BulkheadThreadFactory> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(subsystem -> threadFactory);
+        return new Bulkhead(environment, mock(ObjectProvider.class), provider);
+    }
+
+    private String await() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
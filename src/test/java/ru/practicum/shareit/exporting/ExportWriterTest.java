@@ -0,0 +1,87 @@
+package ru.practicum.shareit.exporting;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class ExportWriterTest {
+    private final ExportWriter exportWriter = new ExportWriter(new ObjectMapper(),
+            mock(PlatformTransactionManager.class), 1, Duration.ofMinutes(30));
+
+    @AfterEach
+    void tearDown() {
+        exportWriter.destroy();
+    }
+
+    @Test
+    void stream_shouldUseExportTimeout() {
+        WebAsyncTask<Void> task = exportWriter.stream(new MockHttpServletResponse(), out -> {
+        });
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), task.getTimeout());
+    }
+
+    @Test
+    void stream_shouldRejectWhenAllExportsAreRunning() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        WebAsyncTask<Void> running = exportWriter.stream(response,
+                out -> out.write("{}\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(ServiceOverloadedException.class,
+                () -> exportWriter.stream(new MockHttpServletResponse(), out -> {
+                }));
+
+        running.getCallable().call();
+        assertEquals(ExportWriter.APPLICATION_NDJSON.toString(), response.getContentType());
+        assertEquals("{}\n", response.getContentAsString());
+        exportWriter.stream(new MockHttpServletResponse(), out -> {
+        });
+    }
+
+    @Test
+    void stream_shouldReleasePermitOnTimeoutAndSkipLateTask() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        WebAsyncTask<Void> timedOut = exportWriter.stream(response,
+                out -> out.write("{}\n".getBytes(StandardCharsets.UTF_8)));
+
+        Callable<?> onTimeout = (Callable<?>) ReflectionTestUtils.getField(timedOut, "timeoutCallback");
+        Runnable onCompletion = (Runnable) ReflectionTestUtils.getField(timedOut, "completionCallback");
+        assertSame(CallableProcessingInterceptor.RESULT_NONE, onTimeout.call());
+        onCompletion.run();
+        timedOut.getCallable().call();
+
+        assertEquals("", response.getContentAsString());
+        assertEquals(1, permits().availablePermits());
+    }
+
+    @Test
+    void stream_shouldReleasePermitOnceWhenCompletedAfterWriting() throws Exception {
+        WebAsyncTask<Void> task = exportWriter.stream(new MockHttpServletResponse(), out -> {
+        });
+
+        task.getCallable().call();
+        ((Runnable) ReflectionTestUtils.getField(task, "completionCallback")).run();
+
+        assertEquals(1, permits().availablePermits());
+    }
+
+    private Semaphore permits() {
+        return (Semaphore) ReflectionTestUtils.getField(exportWriter, "permits");
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.importing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImportReaderTest {
+    private final ImportReader importReader = new ImportReader(new ObjectMapper().registerModule(new JavaTimeModule()),
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void read_shouldAcceptJsonArray() throws IOException {
+        List<UserDto> users = new ArrayList<>();
+
+        ImportResult result = importReader.read(body("  [{\"name\": \"a\", \"email\": \"a@a\"}, "
+                + "{\"name\": \"b\", \"email\": \"b@b\"}]"), UserDto.class, (rows, r) -> rows.forEach(row -> users.add(row.getValue())));
+
+        assertEquals(2, result.getTotal());
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(List.of("a", "b"), users.stream().map(UserDto::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    void read_shouldRejectMalformedNdjsonLineAndContinue() throws IOException {
+        List<Integer> rowNumbers = new ArrayList<>();
+
+        ImportResult result = importReader.read(body("{\"itemId\": 1, \"start\": \"2030-01-01T10:00:00\"}\n"
+                        + "\n"
+                        + "{\"itemId\": 2, \"start\": \"не дата\"}\n"
+                        + "{\"itemId\": 3\n"
+                        + "{\"itemId\": 4}\n"), BookingDto.class,
+                (rows, r) -> rows.forEach(row -> rowNumbers.add(row.getRow())));
+
+        assertEquals(4, result.getTotal());
+        assertEquals(List.of(1, 4), rowNumbers);
+        assertEquals(List.of(2, 3), result.getErrors().stream().map(ImportError::getRow).collect(Collectors.toList()));
+    }
+
+    @Test
+    void read_shouldSkipUnmappableArrayElement() throws IOException {
+        List<Long> itemIds = new ArrayList<>();
+
+        ImportResult result = importReader.read(body("[{\"itemId\": 1}, {\"itemId\": \"x\"}, {\"itemId\": 3}]"),
+                BookingDto.class, (rows, r) -> rows.forEach(row -> itemIds.add(row.getValue().getItemId())));
+
+        assertEquals(3, result.getTotal());
+        assertEquals(List.of(1L, 3L), itemIds);
+        assertEquals(2, result.getErrors().get(0).getRow());
+    }
+
+    @Test
+    void read_shouldPassRowsInChunks() throws IOException {
+        List<Integer> chunkSizes = new ArrayList<>();
+        String ndjson = IntStream.range(0, ImportReader.CHUNK_SIZE + 1)
+                .mapToObj(i -> "{\"name\": \"u" + i + "\", \"email\": \"u" + i + "@mail\"}")
+                .collect(Collectors.joining("\n"));
+
+        ImportResult result = importReader.read(body(ndjson), UserDto.class, (rows, r) -> chunkSizes.add(rows.size()));
+
+        assertEquals(ImportReader.CHUNK_SIZE + 1, result.getTotal());
+        assertEquals(List.of(ImportReader.CHUNK_SIZE, 1), chunkSizes);
+    }
+
+    @Test
+    void violations_shouldDescribeInvalidFields() {
+        assertNull(importReader.violations(new UserDto(null, "a", "a@a")));
+        assertTrue(importReader.violations(new UserDto(null, "a", "не почта")).startsWith("email: "));
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
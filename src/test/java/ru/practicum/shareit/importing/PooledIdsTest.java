@@ -0,0 +1,62 @@
+package ru.practicum.shareit.importing;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.QueryCounter;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.repository.UserBatchRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Import(QueryCounter.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class PooledIdsTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private final UserRepository userRepository;
+    private final UserBatchRepository userBatchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final QueryCounter queryCounter;
+
+    @Test
+    void jpaAndJdbcInserts_shouldShareSequenceWithoutCollisions() {
+        String prefix = "pool" + SEQUENCE.incrementAndGet() + "-";
+        List<Long> ids = new ArrayList<>();
+        ids.add(userRepository.save(new User(null, "jpa", prefix + "jpa1@mail")).getId());
+
+        queryCounter.reset();
+        transactionTemplate.executeWithoutResult(status -> userBatchRepository.insertAll(IntStream.range(0, 120)
+                .mapToObj(i -> new UserDto(null, "batch", prefix + "batch" + i + "@mail"))
+                .collect(Collectors.toList())));
+        assertTrue(queryCounter.getSequenceCalls() <= 4);
+
+        jdbcTemplate.update("INSERT INTO users (email, name_user) VALUES (?, ?)", prefix + "default@mail", "default");
+        ids.add(userRepository.save(new User(null, "jpa", prefix + "jpa2@mail")).getId());
+        ids.addAll(jdbcTemplate.queryForList("SELECT id FROM users WHERE email LIKE ? ORDER BY id", Long.class,
+                prefix + "batch%"));
+
+        List<Long> batch = ids.subList(2, ids.size());
+        assertEquals(120, batch.size());
+        assertTrue(batch.get(batch.size() - 1) - batch.get(0) < 120 + 50);
+        assertEquals(ids.size(), ids.stream().distinct().count());
+        assertEquals(123, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email LIKE ?", Integer.class,
+                prefix + "%"));
+    }
+}
@@ -6,12 +6,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.exporting.ExportWriter;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.ItemDataDto;
 import ru.practicum.shareit.item.entity.Comment;
 import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.service.ItemExportService;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.entity.User;
 
@@ -22,11 +28,15 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static ru.practicum.shareit.AsyncMvc.perform;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import(Bulkhead.class)
 public class ItemControllerTest {
     private final User testUser = new User(
             1L,
@@ -34,12 +44,18 @@ public class ItemControllerTest {
             "test@mail.ru");
     private final Item testItem = new Item(1L, "item", "item for job", true, null, testUser);
     private final Comment comment = new Comment(1L, "comment", testItem, testUser.getName(), LocalDateTime.of(2021, 2, 2, 2, 2));
-    private final ItemDataDto testItemDataDto = new ItemDataDto(1L, "test", "item for job", true, null, null, null, testUser, null);
+    private final ItemDataDto testItemDataDto = new ItemDataDto(1L, "test", "item for job", true, null, null, null, null);
 
     @Autowired
     ObjectMapper objectMapper;
     @MockBean
     ItemService itemService;
+    @MockBean
+    ItemImportService itemImportService;
+    @MockBean
+    ItemExportService itemExportService;
+    @MockBean
+    ExportWriter exportWriter;
     @Autowired
     private MockMvc mvc;
 
@@ -49,7 +65,7 @@ public class ItemControllerTest {
         when(itemService.create(any(), any(Long.class)))
                 .thenReturn(testItem);
 
-        mvc.perform(post("/items")
+        perform(mvc, post("/items")
                         .content(objectMapper.writeValueAsString(testItem))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -67,7 +83,7 @@ public class ItemControllerTest {
         when(itemService.getItemById(any(Long.class), any(Long.class)))
                 .thenReturn(testItemDataDto);
 
-        mvc.perform(get("/items/1")
+        perform(mvc, get("/items/1")
                         .content(objectMapper.writeValueAsString(testItemDataDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -87,7 +103,7 @@ public class ItemControllerTest {
         when(itemService.getItemByUser(any(Long.class)))
                 .thenReturn(List.of(testItemDataDto));
 
-        mvc.perform(get("/items")
+        perform(mvc, get("/items")
                         .content(objectMapper.writeValueAsString(testItemDataDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -107,7 +123,7 @@ public class ItemControllerTest {
         when(itemService.update(any(), any(Long.class), any(Long.class)))
                 .thenReturn(testItem);
 
-        mvc.perform(patch("/items/1")
+        perform(mvc, patch("/items/1")
                         .content(objectMapper.writeValueAsString(testItem))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -124,10 +140,10 @@ public class ItemControllerTest {
     @SneakyThrows
     @Test
     void shouldReturnItemsList() {
-        when(itemService.getItemBySearch(any(String.class)))
-                .thenReturn(List.of(testItem));
+        when(itemService.getItemBySearch(any(String.class), anyInt(), anyInt()))
+                .thenReturn(List.of(ItemMapper.itemToDto(testItem)));
 
-        mvc.perform(get("/items/search?text=description")
+        perform(mvc, get("/items/search?text=description")
                         .content(objectMapper.writeValueAsString(testItem))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -147,7 +163,7 @@ public class ItemControllerTest {
         when(itemService.addComment(any(), any(Long.class), any(Long.class)))
                 .thenReturn(comment);
 
-        mvc.perform(post("/items/1/comment")
+        perform(mvc, post("/items/1/comment")
                         .content(objectMapper.writeValueAsString(comment))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -161,4 +177,23 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.created",
                         is(comment.getCreated().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))));
     }
+
+    @SneakyThrows
+    @Test
+    void search_shouldRejectNegativeOffsetAndNonPositiveSize() {
+        perform(mvc, get("/items/search")
+                        .param("text", "дрель")
+                        .param("from", "-1")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.from").exists());
+        perform(mvc, get("/items/search")
+                        .param("text", "дрель")
+                        .param("size", "0")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.size").exists());
+
+        verifyNoInteractions(itemService);
+    }
 }
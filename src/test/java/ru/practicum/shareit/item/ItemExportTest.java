@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.QueryCounter;
+import ru.practicum.shareit.QueryDataset;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.exporting.ExportWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Import({QueryCounter.class, QueryDataset.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemExportTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private final MockMvc mvc;
+    private final ObjectMapper objectMapper;
+    private final QueryCounter queryCounter;
+    private final QueryDataset dataset;
+
+    @SneakyThrows
+    @Test
+    void exportItems_shouldStreamAllItemsInSingleQuery() {
+        dataset.load(1_000);
+        queryCounter.reset();
+
+        MvcResult result = mvc.perform(get("/items/export").header(HEADER, dataset.getOwnerId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ExportWriter.APPLICATION_NDJSON));
+
+        List<String> lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).lines()
+                .collect(Collectors.toList());
+        assertEquals(100, lines.size());
+        ItemDto first = objectMapper.readValue(lines.get(0), ItemDto.class);
+        assertEquals(dataset.getItemId(), first.getId());
+        assertEquals(2, queryCounter.getStatements());
+    }
+
+    @SneakyThrows
+    @Test
+    void exportItems_shouldReturnNotFoundBeforeStreaming() {
+        mvc.perform(get("/items/export").header(HEADER, Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+}
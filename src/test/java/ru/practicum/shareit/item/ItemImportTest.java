@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.entity.ItemRequest;
+import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMvc.perform;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemImportTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private final String mail = "@import" + SEQUENCE.incrementAndGet();
+    private final MockMvc mvc;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final RequestService requestService;
+
+    @SneakyThrows
+    @Test
+    void importItems_shouldInsertValidRowsAndReportOthers() {
+        User owner = userService.create(new UserDto(null, "owner", "owner" + mail));
+        User requester = userService.create(new UserDto(null, "requester", "requester" + mail));
+        ItemRequest request = requestService.create(new ItemRequestDto(null, "нужна дрель", null, null), requester.getId());
+
+        perform(mvc, post("/items/import").header(HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\": \"дрель\", \"description\": \"ударная\", \"available\": true, "
+                                + "\"requestId\": " + request.getId() + "}, "
+                                + "{\"description\": \"без названия\", \"available\": true}, "
+                                + "{\"name\": \"пила\", \"description\": \"цепная\"}, "
+                                + "{\"name\": \"лобзик\", \"description\": \"ручной\", \"available\": true, \"requestId\": -1}, "
+                                + "{\"name\": \"рубанок\", \"description\": \"ручной\", \"available\": false}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(5)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.errors[*].row", is(List.of(2, 3, 4))));
+
+        assertEquals(2, itemService.getItemByUser(owner.getId()).size());
+        assertEquals(1, itemService.getByRequestId(request.getId()).size());
+    }
+
+    @SneakyThrows
+    @Test
+    void importItems_shouldReturnNotFoundForUnknownOwner() {
+        perform(mvc, post("/items/import").header(HEADER, Long.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isNotFound());
+    }
+}
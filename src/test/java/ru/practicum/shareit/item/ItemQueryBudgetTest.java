@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.QueryBudget;
+import ru.practicum.shareit.QueryCounter;
+import ru.practicum.shareit.QueryDataset;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Import({QueryCounter.class, QueryDataset.class, QueryBudget.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemQueryBudgetTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private final QueryDataset dataset;
+    private final QueryBudget budget;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1_000, 10_000})
+    void itemEndpoints_shouldStayWithinQueryBudget(int size) {
+        dataset.load(size);
+        Long ownerId = dataset.getOwnerId();
+        Long itemId = dataset.getItemId();
+        int ownerItems = size / 10 + 1;
+
+        assertAll(
+                budget.check("POST /items", post("/items").header(HEADER, ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"пила\", \"description\": \"цепная\", \"available\": true}"), 2, 2),
+                budget.check("PATCH /items/{id}", patch("/items/{id}", itemId).header(HEADER, ownerId)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"пила\"}"), 2, 1),
+                budget.check("GET /items/{id} owner", get("/items/{id}", itemId).header(HEADER, ownerId), 3, 13),
+                budget.check("GET /items/{id}", get("/items/{id}", itemId).header(HEADER, dataset.getBookerId()), 2, 11),
+                budget.check("GET /items", get("/items").header(HEADER, ownerId), 4, 1 + ownerItems + size + 2 * ownerItems),
+                budget.check("GET /items/search", get("/items/search").header(HEADER, ownerId)
+                        .param("text", QueryDataset.SEARCH_TEXT), 1, 10),
+                budget.check("POST /items/{id}/comment", post("/items/{id}/comment", itemId)
+                        .header(HEADER, dataset.getBookerId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\": \"отличная\"}"), 2, 11)
+        );
+    }
+}
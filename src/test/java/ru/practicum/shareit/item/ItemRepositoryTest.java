@@ -7,6 +7,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemViewCache;
 
 import java.util.Optional;
 
@@ -18,10 +19,12 @@ import static org.mockito.Mockito.when;
 public class ItemRepositoryTest {
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemViewCache itemViewCache;
 
     @Test
     void shouldThrowExceptionIfWrongId() {
-        ItemService itemService = new ItemService(itemRepository, null, null, null);
+        ItemService itemService = new ItemService(itemRepository, null, null, null, itemViewCache, null);
         when(itemRepository.findById(any(Long.class))).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class,
@@ -8,6 +8,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -19,15 +21,18 @@ import ru.practicum.shareit.item.dto.ItemDataDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.entity.Comment;
 import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -41,6 +46,7 @@ public class ItemServiceTest {
     private final UserService userService;
     private final BookingService bookingService;
     private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
 
     private final UserDto userDto = new UserDto(
             1L,
@@ -97,7 +103,7 @@ public class ItemServiceTest {
         User user1 = userService.create(userDto);
         itemService.create(itemDto, user1.getId());
         assertThrows(NotFoundException.class,
-                () -> itemService.update(itemDto, 2L, user1.getId()));
+                () -> itemService.update(itemDto, 999L, user1.getId()));
     }
 
     @Test
@@ -151,7 +157,7 @@ public class ItemServiceTest {
         Item thisItem = itemService.create(itemDto, thisUser.getId());
         ItemDataDto returnedItem = itemService.getItemById(thisUser.getId(), thisItem.getId());
 
-        assertEquals(returnedItem.getUser().getEmail(), thisUser.getEmail());
+        assertEquals(thisItem.getId(), returnedItem.getId());
         assertEquals(thisItem.getName(), returnedItem.getName());
     }
 
@@ -183,7 +189,81 @@ public class ItemServiceTest {
         assertEquals(createdComment.getAuthorName(), createdBooker.getName());
         assertEquals(createdComment.getItem().getId(), createdItem.getId());
         assertEquals(createdItem.getId(), itemDataDto.getId());
-        assertEquals(createdItem.getUser().getEmail(), itemDataDto.getUser().getEmail());
+        assertEquals(createdComment.getText(), itemDataDto.getComments().get(0).getText());
+    }
+
+    @Test
+    void getItemById_shouldReturnOnlyNearestBookingsForOwner() {
+        LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        User createdUser = userService.create(userDto);
+        User createdBooker = userService.create(userDto2);
+        Item createdItem = itemService.create(itemDto, createdUser.getId());
+        Booking last = null;
+        Booking next = null;
+        for (int i = 1; i <= 100; i++) {
+            Booking past = bookingRepository.save(new Booking(null, time.minusDays(2L * i + 1), time.minusDays(2L * i), createdItem, createdBooker, BookingStatus.APPROVED));
+            Booking future = bookingRepository.save(new Booking(null, time.plusDays(2L * i), time.plusDays(2L * i + 1), createdItem, createdBooker, BookingStatus.WAITING));
+            if (i == 1) {
+                last = past;
+                next = future;
+            }
+        }
+        itemRepository.refreshBookings(createdItem.getId(), LocalDateTime.now());
+
+        ItemDataDto ownerView = itemService.getItemById(createdItem.getId(), createdUser.getId());
+        ItemDataDto bookerView = itemService.getItemById(createdItem.getId(), createdBooker.getId());
+
+        BookingShortView lastView = bookingRepository.findLastByItemId(createdItem.getId(), LocalDateTime.now()).orElseThrow();
+        BookingShortView nextView = bookingRepository.findNextByItemId(createdItem.getId(), LocalDateTime.now()).orElseThrow();
+        assertEquals(last.getId(), lastView.getId());
+        assertTrue(lastView.getLast());
+        assertEquals(next.getId(), nextView.getId());
+        assertFalse(nextView.getLast());
+        assertEquals(last.getId(), ownerView.getLastBooking().getId());
+        assertEquals(next.getId(), ownerView.getNextBooking().getId());
+        assertEquals(time.minusDays(2), ownerView.getLastBooking().getEnd());
+        assertEquals(time.plusDays(2), ownerView.getNextBooking().getStart());
+        assertEquals(createdBooker.getId(), ownerView.getNextBooking().getBookerId());
+        assertNull(bookerView.getLastBooking());
+        assertNull(bookerView.getNextBooking());
+    }
+
+    @Test
+    void getItemById_shouldFallBackAndRollForwardWhenNextBookingStarted() {
+        LocalDateTime time = LocalDateTime.now();
+        User createdUser = userService.create(userDto);
+        User createdBooker = userService.create(userDto2);
+        Item createdItem = itemService.create(itemDto, createdUser.getId());
+        Booking started = bookingRepository.save(new Booking(null, time.minusHours(1), time.plusHours(1), createdItem, createdBooker, BookingStatus.APPROVED));
+        itemRepository.refreshBookings(createdItem.getId(), time.minusDays(1));
+
+        ItemDataDto ownerView = itemService.getItemById(createdItem.getId(), createdUser.getId());
+
+        assertEquals(started.getId(), ownerView.getLastBooking().getId());
+        assertNull(ownerView.getNextBooking());
+        assertTrue(itemService.rollForwardBookings() >= 1);
+        List<BookingShortView> pointers = bookingRepository.findBookingPointersByItemId(createdItem.getId());
+        assertEquals(1, pointers.size());
+        assertTrue(pointers.get(0).getLast());
+    }
+
+    @Test
+    void deleteUser_shouldRefreshPointersOfItemsTheUserBooked() {
+        LocalDateTime time = LocalDateTime.now();
+        User createdUser = userService.create(userDto);
+        User createdBooker = userService.create(userDto2);
+        User otherBooker = userService.create(new UserDto(null, "name3", "email3@email"));
+        Item createdItem = itemService.create(itemDto, createdUser.getId());
+        bookingRepository.save(new Booking(null, time.plusDays(1), time.plusDays(2), createdItem, createdBooker, BookingStatus.APPROVED));
+        Booking later = bookingRepository.save(new Booking(null, time.plusDays(3), time.plusDays(4), createdItem, otherBooker, BookingStatus.APPROVED));
+        itemRepository.refreshBookings(createdItem.getId(), time);
+
+        userService.deleteUser(createdBooker.getId());
+
+        List<BookingShortView> pointers = bookingRepository.findBookingPointersByItemId(createdItem.getId());
+        assertEquals(1, pointers.size());
+        assertEquals(later.getId(), pointers.get(0).getId());
+        assertFalse(pointers.get(0).getLast());
     }
 
     @Test
@@ -234,18 +314,117 @@ public class ItemServiceTest {
         assertFalse(itemDataDto.isEmpty());
     }
 
+    @Test
+    void getItemByUser_shouldReturnLastAndNextBookingPerItem() {
+        LocalDateTime time = LocalDateTime.now();
+        User createdUser = userService.create(userDto);
+        User createdBooker = userService.create(userDto2);
+        Item firstItem = itemService.create(new ItemDto(null, "first", "desc", true, null), createdUser.getId());
+        Item secondItem = itemService.create(new ItemDto(null, "second", "desc", true, null), createdUser.getId());
+        Item thirdItem = itemService.create(new ItemDto(null, "third", "desc", true, null), createdUser.getId());
+        Booking oldLast = bookingRepository.save(new Booking(null, time.minusDays(5), time.minusDays(4), firstItem, createdBooker, BookingStatus.APPROVED));
+        Booking last = bookingRepository.save(new Booking(null, time.minusDays(3), time.minusDays(2), firstItem, createdBooker, BookingStatus.APPROVED));
+        Booking next = bookingRepository.save(new Booking(null, time.plusDays(1), time.plusDays(2), firstItem, createdBooker, BookingStatus.WAITING));
+        Booking laterNext = bookingRepository.save(new Booking(null, time.plusDays(3), time.plusDays(4), firstItem, createdBooker, BookingStatus.WAITING));
+        Booking secondNext = bookingRepository.save(new Booking(null, time.plusDays(5), time.plusDays(6), secondItem, createdBooker, BookingStatus.WAITING));
+        itemService.addComment(new CommentDto(null, "comment"), createdBooker.getId(), firstItem.getId());
+        itemRepository.refreshBookings(firstItem.getId(), time);
+        itemRepository.refreshBookings(secondItem.getId(), time);
+
+        List<ItemDataDto> items = List.copyOf(itemService.getItemByUser(createdUser.getId()));
+
+        assertEquals(3, items.size());
+        assertEquals(firstItem.getId(), items.get(0).getId());
+        assertEquals(last.getId(), items.get(0).getLastBooking().getId());
+        assertEquals(next.getId(), items.get(0).getNextBooking().getId());
+        assertEquals(1, items.get(0).getComments().size());
+        assertNull(items.get(1).getLastBooking());
+        assertEquals(secondNext.getId(), items.get(1).getNextBooking().getId());
+        assertTrue(items.get(1).getComments().isEmpty());
+        assertEquals(thirdItem.getId(), items.get(2).getId());
+        assertNull(items.get(2).getNextBooking());
+        assertNotEquals(oldLast.getId(), items.get(0).getLastBooking().getId());
+        assertNotEquals(laterNext.getId(), items.get(0).getNextBooking().getId());
+    }
+
     @Test
     void search_shouldReturnItem() {
         User thisUser = userService.create(userDto);
         itemService.create(itemDto, thisUser.getId());
-        Collection<Item> items = itemService.getItemBySearch(itemDto.getName());
+        Collection<ItemDto> items = itemService.getItemBySearch(itemDto.getName(), 0, 10);
 
         assertFalse(items.isEmpty());
     }
 
+    @Test
+    void search_shouldMatchSubstringIgnoringCaseAndWildcards() {
+        User thisUser = userService.create(userDto);
+        itemService.create(new ItemDto(null, "Дрель", "ударная 100%", true, null), thisUser.getId());
+        itemService.create(new ItemDto(null, "дрель_2", "аккумуляторная", false, null), thisUser.getId());
+        itemService.create(new ItemDto(null, "пила", "100 ватт", true, null), thisUser.getId());
+
+        assertEquals(List.of("Дрель"), itemService.getItemBySearch("дРЕЛ", 0, 10).stream()
+                .map(ItemDto::getName).collect(Collectors.toList()));
+        assertEquals(List.of("Дрель"), itemService.getItemBySearch("0%", 0, 10).stream()
+                .map(ItemDto::getName).collect(Collectors.toList()));
+        assertTrue(itemService.getItemBySearch("_", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldRankNameTokensFirstAndPaginate() {
+        User thisUser = userService.create(userDto);
+        itemService.create(new ItemDto(null, "набор", "дрель и биты", true, null), thisUser.getId());
+        itemService.create(new ItemDto(null, "шуруповёрт", "как дрелька", true, null), thisUser.getId());
+        itemService.create(new ItemDto(null, "дрелька", "малая", true, null), thisUser.getId());
+        itemService.create(new ItemDto(null, "ударная дрель", "мощная", true, null), thisUser.getId());
+
+        assertEquals(List.of("ударная дрель", "дрелька", "набор", "шуруповёрт"),
+                itemService.getItemBySearch("дрель", 0, 10).stream()
+                        .map(ItemDto::getName).collect(Collectors.toList()));
+        assertEquals(List.of("набор", "шуруповёрт"), itemService.getItemBySearch("дрель", 2, 2).stream()
+                .map(ItemDto::getName).collect(Collectors.toList()));
+        assertThrows(ValidationItemException.class, () -> itemService.getItemBySearch("дрель", -1, 10));
+    }
+
+    @Test
+    void search_shouldTreatPunctuationAsWordBoundary() {
+        User thisUser = userService.create(userDto);
+        itemService.create(new ItemDto(null, "дрельщик", "набор", true, null), thisUser.getId());
+        itemService.create(new ItemDto(null, "Дрель-шуруповёрт", "аккумуляторная", true, null), thisUser.getId());
+        itemService.create(new ItemDto(null, "пила", "дрель, биты", true, null), thisUser.getId());
+        itemService.create(new ItemDto(null, "набор (дрель)", "в кейсе", true, null), thisUser.getId());
+
+        assertEquals(List.of("Дрель-шуруповёрт", "набор (дрель)", "дрельщик", "пила"),
+                itemService.getItemBySearch("дрель", 0, 10).stream()
+                        .map(ItemDto::getName).collect(Collectors.toList()));
+        assertEquals(List.of("набор (дрель)"), itemService.getItemBySearch("(дрель)", 0, 10).stream()
+                .map(ItemDto::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    void search_shouldStartPageAtOffsetNotMultipleOfSize() {
+        User thisUser = userService.create(userDto);
+        List<Item> items = itemRepository.saveAll(IntStream.range(0, 300)
+                .mapToObj(i -> {
+                    Item item = new Item();
+                    item.setName("стремянка " + i);
+                    item.setDescription("алюминиевая");
+                    item.setAvailable(true);
+                    item.setUser(thisUser);
+                    return item;
+                })
+                .collect(Collectors.toList()));
+
+        List<ItemDto> page = List.copyOf(itemService.getItemBySearch("стремянка", 150, 200));
+
+        assertEquals(100, page.size());
+        assertEquals(items.get(150).getId(), page.get(0).getId());
+        assertEquals(items.get(249).getId(), page.get(99).getId());
+    }
+
     @Test
     void search_shouldReturnEmptyList() {
-        Collection<Item> items = itemService.getItemBySearch("");
+        Collection<ItemDto> items = itemService.getItemBySearch("", 0, 10);
         assertTrue(items.isEmpty());
     }
 
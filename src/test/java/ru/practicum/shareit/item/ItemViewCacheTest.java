@@ -0,0 +1,155 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.cache.CacheConfig;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDataDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemViewCacheTest {
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final UserService userService;
+    @SpyBean
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        long n = System.nanoTime();
+        owner = userService.create(new UserDto(null, "owner", "owner" + n + "@email"));
+        booker = userService.create(new UserDto(null, "booker", "booker" + n + "@email"));
+        item = itemService.create(new ItemDto(null, "дрель", "ударная", true, null), owner.getId());
+        clearInvocations(itemRepository);
+    }
+
+    @Test
+    void getItemById_shouldBuildEachViewOnce() {
+        itemService.getItemById(item.getId(), owner.getId());
+        itemService.getItemById(item.getId(), owner.getId());
+        itemService.getItemById(item.getId(), booker.getId());
+        itemService.getItemById(item.getId(), booker.getId());
+
+        verify(itemRepository, times(2)).findById(item.getId());
+    }
+
+    @Test
+    void bookingCreateAndUpdate_shouldEvictItemView() {
+        LocalDateTime time = LocalDateTime.now();
+        assertNull(itemService.getItemById(item.getId(), owner.getId()).getNextBooking());
+
+        Booking booking = bookingService.create(new BookingDto(null, time.plusDays(1), time.plusDays(2), item.getId()),
+                booker.getId());
+        assertEquals(booking.getId(), itemService.getItemById(item.getId(), owner.getId()).getNextBooking().getId());
+
+        bookingService.update(booking.getId(), owner.getId(), false);
+        clearInvocations(itemRepository);
+        itemService.getItemById(item.getId(), owner.getId());
+        verify(itemRepository, times(1)).findById(item.getId());
+    }
+
+    @Test
+    void itemUpdateAndComment_shouldEvictItemView() {
+        LocalDateTime time = LocalDateTime.now();
+        itemService.getItemById(item.getId(), booker.getId());
+
+        itemService.update(new ItemDto(null, "пила", null, null, null), item.getId(), owner.getId());
+        assertEquals("пила", itemService.getItemById(item.getId(), booker.getId()).getName());
+
+        bookingRepository.save(new Booking(null, time.minusDays(2), time.minusDays(1), item, booker, BookingStatus.APPROVED));
+        itemService.addComment(new CommentDto(null, "отличная"), booker.getId(), item.getId());
+        assertEquals(1, itemService.getItemById(item.getId(), booker.getId()).getComments().size());
+    }
+
+    @Test
+    void ownerView_shouldExpireWhenNextBookingStarts() {
+        ItemViewCache cache = new ItemViewCache(new ConcurrentMapCacheManager(CacheConfig.ITEM_VIEWS));
+        LocalDateTime nextStart = LocalDateTime.now().plusHours(1);
+        ItemDataDto ownerView = new ItemDataDto();
+        ItemDataDto otherView = new ItemDataDto();
+        cache.put(1L, 10L, true, ownerView, nextStart, cache.epoch(1L));
+        cache.put(1L, 10L, false, otherView, null, cache.epoch(1L));
+
+        assertSame(ownerView, cache.get(1L, 10L, nextStart.minusSeconds(1)));
+        assertSame(otherView, cache.get(1L, 20L, nextStart.minusSeconds(1)));
+        assertNull(cache.get(1L, 10L, nextStart));
+        assertSame(otherView, cache.get(1L, 20L, nextStart.plusDays(1)));
+
+        cache.evict(1L);
+        assertNull(cache.get(1L, 20L, nextStart));
+    }
+
+    @Test
+    void put_shouldDropViewLoadedBeforeEviction() {
+        ItemViewCache cache = new ItemViewCache(new ConcurrentMapCacheManager(CacheConfig.ITEM_VIEWS));
+        long loadedAt = cache.epoch(1L);
+        cache.evict(1L);
+        cache.put(1L, 10L, false, new ItemDataDto(), null, loadedAt);
+
+        assertNull(cache.get(1L, 20L, LocalDateTime.now()));
+    }
+
+    @Test
+    void put_shouldKeepViewWhenOtherItemEvicted() {
+        ItemViewCache cache = new ItemViewCache(new ConcurrentMapCacheManager(CacheConfig.ITEM_VIEWS));
+        long loadedAt = cache.epoch(1L);
+        cache.evict(2L);
+        ItemDataDto view = new ItemDataDto();
+        cache.put(1L, 10L, false, view, null, loadedAt);
+
+        assertSame(view, cache.get(1L, 20L, LocalDateTime.now()));
+    }
+
+    @Test
+    void put_shouldDropViewLoadedBeforeClear() {
+        ItemViewCache cache = new ItemViewCache(new ConcurrentMapCacheManager(CacheConfig.ITEM_VIEWS));
+        long loadedAt = cache.epoch(1L);
+        cache.clear();
+        cache.put(1L, 10L, false, new ItemDataDto(), null, loadedAt);
+
+        assertNull(cache.get(1L, 20L, LocalDateTime.now()));
+    }
+
+    @Test
+    void deleteUser_shouldEvictItemViews() {
+        itemService.getItemById(item.getId(), booker.getId());
+
+        userService.deleteUser(owner.getId());
+
+        assertThrows(NotFoundException.class, () -> itemService.getItemById(item.getId(), booker.getId()));
+    }
+}
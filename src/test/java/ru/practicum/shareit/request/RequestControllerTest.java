@@ -6,8 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.controller.RequestController;
 import ru.practicum.shareit.request.dto.ItemGetRequestDTO;
 import ru.practicum.shareit.request.entity.ItemRequest;
@@ -17,17 +20,24 @@ import ru.practicum.shareit.user.entity.User;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMvc.perform;
 
 @WebMvcTest(controllers = RequestController.class)
+@Import(Bulkhead.class)
 public class RequestControllerTest {
     private final User user = new User(1L, "user", "email@email.ru");
     private final ItemRequest itemRequest = new ItemRequest(1L, "request", user, LocalDateTime.of(2024, 2, 2, 2, 2));
@@ -45,7 +55,7 @@ public class RequestControllerTest {
         when(requestService.create(any(), any(Long.class)))
                 .thenReturn(itemRequest);
 
-        mvc.perform(post("/requests")
+        perform(mvc, post("/requests")
                         .content(objectMapper.writeValueAsString(itemRequest))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -67,7 +77,7 @@ public class RequestControllerTest {
         when(requestService.getRequest(any(Long.class), any(Long.class)))
                 .thenReturn(itemGetRequestDto);
 
-        mvc.perform(get("/requests/1")
+        perform(mvc, get("/requests/1")
                         .content(objectMapper.writeValueAsString(itemGetRequestDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -83,10 +93,10 @@ public class RequestControllerTest {
     @SneakyThrows
     @Test
     void getListAllRequest_shouldReturnListOfRequests() {
-        when(requestService.getListAllRequest(any(Long.class), any(Integer.class), any(Integer.class)))
+        when(requestService.getListAllRequest(any(Long.class), any(Integer.class), any(Integer.class), nullable(String.class)))
                 .thenReturn(List.of(itemGetRequestDto));
 
-        mvc.perform(get("/requests/all")
+        perform(mvc, get("/requests/all")
                         .content(objectMapper.writeValueAsString(itemGetRequestDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -102,19 +112,51 @@ public class RequestControllerTest {
     @SneakyThrows
     @Test
     void getListRequest_shouldReturnRequestsByOwner() {
-        when(requestService.getListRequest(any(Long.class)))
+        when(requestService.getListRequest(any(Long.class), eq(0), eq(RequestService.pageSize(null)), nullable(String.class)))
                 .thenReturn(List.of(itemGetRequestDto));
 
-        mvc.perform(get("/requests")
+        perform(mvc, get("/requests")
                         .content(objectMapper.writeValueAsString(itemGetRequestDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON)
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(Cursor.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$.[0].id", is(itemGetRequestDto.getId()), Long.class))
                 .andExpect(jsonPath("$.[0].description", is(itemGetRequestDto.getDescription())))
                 .andExpect(jsonPath("$.[0].created",
                         is(itemGetRequestDto.getCreated().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))));
     }
+
+    @SneakyThrows
+    @Test
+    void getListRequest_shouldCapPageSizeAndReturnNextCursor() {
+        when(requestService.getListRequest(any(Long.class), eq(0), eq(RequestService.MAX_PAGE_SIZE),
+                nullable(String.class)))
+                .thenReturn(Collections.nCopies(RequestService.MAX_PAGE_SIZE, itemGetRequestDto));
+
+        perform(mvc, get("/requests")
+                        .param("size", "100000")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(Cursor.NEXT_CURSOR_HEADER));
+    }
+
+    @SneakyThrows
+    @Test
+    void getListRequest_shouldRejectNegativeOffsetAndNonPositiveSize() {
+        perform(mvc, get("/requests")
+                        .param("from", "-1")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.from").exists());
+        perform(mvc, get("/requests/all")
+                        .param("size", "0")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.size").exists());
+
+        verifyNoInteractions(requestService);
+    }
 }
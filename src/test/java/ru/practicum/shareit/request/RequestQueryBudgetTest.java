@@ -0,0 +1,47 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.QueryBudget;
+import ru.practicum.shareit.QueryCounter;
+import ru.practicum.shareit.QueryDataset;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Import({QueryCounter.class, QueryDataset.class, QueryBudget.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class RequestQueryBudgetTest {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private final QueryDataset dataset;
+    private final QueryBudget budget;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1_000, 10_000})
+    void requestEndpoints_shouldStayWithinQueryBudget(int size) {
+        dataset.load(size);
+        Long requesterId = dataset.getRequesterId();
+
+        assertAll(
+                budget.check("POST /requests", post("/requests").header(HEADER, requesterId)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"description\": \"нужна дрель\"}"), 2, 2),
+                budget.check("GET /requests", get("/requests").header(HEADER, requesterId)
+                        .param("from", "0").param("size", "10"), 3, 21),
+                budget.check("GET /requests/all", get("/requests/all").header(HEADER, dataset.getBookerId())
+                        .param("from", "0").param("size", "10"), 3, 21),
+                budget.check("GET /requests/{id}", get("/requests/{id}", dataset.getRequestId())
+                        .header(HEADER, requesterId), 3, 3)
+        );
+    }
+}
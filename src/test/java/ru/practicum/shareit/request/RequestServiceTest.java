@@ -9,6 +9,8 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationItemException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemGetRequestDTO;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.entity.ItemRequest;
@@ -20,6 +22,7 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -33,6 +36,7 @@ import static org.junit.jupiter.api.Assertions.*;
 public class RequestServiceTest {
     private final RequestService requestService;
     private final UserService userService;
+    private final ItemService itemService;
 
     private final User user = new User(1L, "user", "email@email.ru");
     private final UserDto userDto = new UserDto(999L, "Someone", "email@email.ru");
@@ -65,16 +69,50 @@ public class RequestServiceTest {
     void getRequestsByOwner_shouldReturnRequests() {
         User thisUser = userService.create(userDto);
         ItemRequest thisRequest = requestService.create(itemRequestDto, thisUser.getId());
-        List<ItemGetRequestDTO> returnedRequest = requestService.getListRequest(thisUser.getId());
+        List<ItemGetRequestDTO> returnedRequest = requestService.getListRequest(thisUser.getId(), 0, 10, null);
 
         assertFalse(returnedRequest.isEmpty());
         assertTrue(returnedRequest.contains(ItemRequestMapper.transformationGetRequestDTO(thisRequest, List.of())));
     }
 
+    @Test
+    void getListRequest_shouldAttachItemsOfEachRequestAndPage() {
+        User requester = userService.create(userDto);
+        User owner = userService.create(userDto2);
+        ItemRequest first = requestService.create(itemRequestDto, requester.getId());
+        ItemRequest second = requestService.create(new ItemRequestDto(null, "second", userDto, null), requester.getId());
+        itemService.create(new ItemDto(null, "дрель", "ударная", true, first.getId()), owner.getId());
+        itemService.create(new ItemDto(null, "пила", "цепная", true, second.getId()), owner.getId());
+        itemService.create(new ItemDto(null, "лобзик", "ручной", true, second.getId()), owner.getId());
+
+        List<ItemGetRequestDTO> requests = requestService.getListRequest(requester.getId(), 0, 10, null);
+        List<ItemGetRequestDTO> firstPage = requestService.getListRequest(requester.getId(), 0, 1, null);
+
+        assertEquals(2, requests.size());
+        assertEquals(second.getId(), requests.get(0).getId());
+        assertEquals(2, requests.get(0).getItems().size());
+        assertEquals(1, requests.get(1).getItems().size());
+        assertEquals("дрель", requests.get(1).getItems().get(0).getName());
+        assertEquals(List.of(second.getId()), firstPage.stream().map(ItemGetRequestDTO::getId).collect(Collectors.toList()));
+        assertThrows(ValidationItemException.class,
+                () -> requestService.getListRequest(requester.getId(), 0, 0, null));
+    }
+
+    @Test
+    void getListRequest_shouldCapPageSize() {
+        User requester = userService.create(userDto);
+        for (int i = 0; i <= RequestService.MAX_PAGE_SIZE; i++) {
+            requestService.create(new ItemRequestDto(null, "request" + i, userDto, null), requester.getId());
+        }
+
+        assertEquals(RequestService.MAX_PAGE_SIZE,
+                requestService.getListRequest(requester.getId(), 0, Integer.MAX_VALUE, null).size());
+    }
+
     @Test
     void getListRequest_shouldThrowExceptionIfUserIdIncorrect() {
         assertThrows(NotFoundException.class,
-                () -> requestService.getListRequest(999L));
+                () -> requestService.getListRequest(999L, 0, 10, null));
     }
 
     @Test
@@ -103,14 +141,14 @@ public class RequestServiceTest {
     @Test
     void getListAllRequest_shouldThrowExceptionIfUserIdIncorrect() {
         assertThrows(NotFoundException.class,
-                () -> requestService.getListAllRequest(1L, 0, 10));
+                () -> requestService.getListAllRequest(1L, 0, 10, null));
     }
 
     @Test
     void getListAllRequest_shouldThrowExceptionIfFromIsIncorrect() {
         User testUser = userService.create(userDto);
         assertThrows(ValidationItemException.class,
-                () -> requestService.getListAllRequest(testUser.getId(), -2, 10));
+                () -> requestService.getListAllRequest(testUser.getId(), -2, 10, null));
     }
 
     @Test
@@ -118,7 +156,7 @@ public class RequestServiceTest {
         User thisUser = userService.create(userDto);
         User anotherUser = userService.create(userDto2);
         ItemRequest thisRequest = requestService.create(itemRequestDto, thisUser.getId());
-        List<ItemGetRequestDTO> returnedRequest = requestService.getListAllRequest(anotherUser.getId(), 1, 10);
+        List<ItemGetRequestDTO> returnedRequest = requestService.getListAllRequest(anotherUser.getId(), 0, 10, null);
 
         assertFalse(returnedRequest.isEmpty());
         assertTrue(returnedRequest.contains(ItemRequestMapper.transformationGetRequestDTO(thisRequest, List.of())));
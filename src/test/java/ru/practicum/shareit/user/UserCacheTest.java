@@ -0,0 +1,88 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import ru.practicum.shareit.cache.CacheConfig;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserCacheTest {
+    private final UserService userService;
+    private final CacheManager cacheManager;
+    @SpyBean
+    private UserRepository userRepository;
+
+    private Cache<Object, Object> users;
+    private User user;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        users = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.USERS).getNativeCache();
+        users.invalidateAll();
+        user = userService.create(new UserDto(null, "Someone", "cache" + System.nanoTime() + "@email"));
+        clearInvocations(userRepository);
+    }
+
+    @Test
+    void getById_shouldHitCacheAfterFirstLookup() {
+        long hits = users.stats().hitCount();
+        long misses = users.stats().missCount();
+
+        userService.getById(user.getId());
+        userService.getById(user.getId());
+        userService.getById(user.getId());
+
+        verify(userRepository, times(1)).findById(user.getId());
+        assertEquals(misses + 1, users.stats().missCount());
+        assertEquals(hits + 2, users.stats().hitCount());
+    }
+
+    @Test
+    void getById_shouldNotShareCachedUser() {
+        userService.getById(user.getId()).setName("Changed");
+
+        User cached = userService.getById(user.getId());
+
+        assertEquals("Someone", cached.getName());
+        assertNotSame(cached, userService.getById(user.getId()));
+    }
+
+    @Test
+    void update_shouldEvictCachedUser() {
+        userService.getById(user.getId());
+
+        userService.update(new UserDto(null, "Renamed", null), user.getId());
+
+        assertEquals("Renamed", userService.getById(user.getId()).getName());
+    }
+
+    @Test
+    void deleteUser_shouldEvictCachedUser() {
+        userService.getById(user.getId());
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(NotFoundException.class, () -> userService.getById(user.getId()));
+    }
+}
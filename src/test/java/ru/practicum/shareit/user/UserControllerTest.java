@@ -6,11 +6,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.bulkhead.Subsystem;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
 import ru.practicum.shareit.user.controller.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserImportService;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
@@ -18,11 +25,15 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static ru.practicum.shareit.AsyncMvc.perform;
 
 @WebMvcTest(controllers = UserController.class)
+@Import(Bulkhead.class)
 public class UserControllerTest {
     private final UserDto userDto = new UserDto(
             1L,
@@ -34,15 +45,19 @@ public class UserControllerTest {
             "name",
             "email@email"
     );
-    private final List<User> listUser = List.of(
-            new User(2L, "Maria", "masha@mail.ru"),
-            new User(3L, "Matthew", "matthew@ya.ru"));
+    private final List<UserDto> listUser = List.of(
+            new UserDto(2L, "Maria", "masha@mail.ru"),
+            new UserDto(3L, "Matthew", "matthew@ya.ru"));
     @Autowired
     private ObjectMapper mapper;
     @Autowired
     private MockMvc mvc;
     @MockBean
     private UserService userService;
+    @MockBean
+    private UserImportService userImportService;
+    @SpyBean
+    private Bulkhead bulkhead;
 
     @SneakyThrows
     @Test
@@ -50,7 +65,7 @@ public class UserControllerTest {
         when(userService.create(any()))
                 .thenReturn(user);
 
-        mvc.perform(post("/users")
+        perform(mvc, post("/users")
                         .content(mapper.writeValueAsString(user))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -67,7 +82,7 @@ public class UserControllerTest {
         when(userService.getById(any(Long.class)))
                 .thenReturn(user);
 
-        mvc.perform(get("/users/1"))
+        perform(mvc, get("/users/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(user.getId()), Long.class))
@@ -78,7 +93,7 @@ public class UserControllerTest {
     @SneakyThrows
     @Test
     void shouldDeleteUserById() {
-        mvc.perform(delete("/users/1"))
+        perform(mvc, delete("/users/1"))
                 .andExpect(status().isOk());
     }
 
@@ -88,7 +103,7 @@ public class UserControllerTest {
         when(userService.update(any(), any()))
                 .thenReturn(user);
 
-        mvc.perform(patch("/users/1")
+        perform(mvc, patch("/users/1")
                         .content(mapper.writeValueAsString(userDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -106,7 +121,7 @@ public class UserControllerTest {
         when(userService.getAllUsers())
                 .thenReturn(listUser);
 
-        mvc.perform(get("/users")
+        perform(mvc, get("/users")
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
@@ -114,4 +129,15 @@ public class UserControllerTest {
                 .andExpect(content().json(mapper.writeValueAsString(listUser)));
     }
 
+    @SneakyThrows
+    @Test
+    void shouldReturnServiceUnavailableWhenUsersPoolIsFull() {
+        doThrow(new ServiceOverloadedException("Подсистема users перегружена, повторите запрос позже"))
+                .when(bulkhead).supply(eq(Subsystem.USERS), any());
+
+        perform(mvc, get("/users/1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
 }
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.importing.ImportReader;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMvc.perform;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserImportTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private final String mail = "@import" + SEQUENCE.incrementAndGet();
+    private final MockMvc mvc;
+    private final UserService userService;
+    @SpyBean
+    private UserRepository userRepository;
+
+    @SneakyThrows
+    @Test
+    void importUsers_shouldInsertValidRowsAndReportOthers() {
+        userService.create(new UserDto(null, "taken", "taken" + mail));
+
+        perform(mvc, post("/users/import")
+                        .contentType(ImportReader.APPLICATION_NDJSON_VALUE)
+                        .content("{\"name\": \"first\", \"email\": \"first" + mail + "\"}\n"
+                                + "{\"name\": \"taken\", \"email\": \"taken" + mail + "\"}\n"
+                                + "{\"name\": \"twin\", \"email\": \"first" + mail + "\"}\n"
+                                + "{\"name\": \"no email\"}\n"
+                                + "{\"name\": \"bad\", \"email\": \"не почта\"}\n"
+                                + "{\"name\": \"second\", \"email\": \"second" + mail + "\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(6)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.errors[*].row", is(List.of(2, 3, 4, 5))));
+
+        perform(mvc, post("/users/import")
+                        .contentType("application/json")
+                        .content("[{\"name\": \"third\", \"email\": \"third" + mail + "\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)));
+    }
+
+    @SneakyThrows
+    @Test
+    void importUsers_shouldRejectOnlyRowsWhoseEmailWasTakenAfterCheck() {
+        userService.create(new UserDto(null, "taken", "taken" + mail));
+        doReturn(List.of()).when(userRepository).findEmailsByEmailIn(any());
+
+        perform(mvc, post("/users/import")
+                        .contentType(ImportReader.APPLICATION_NDJSON_VALUE)
+                        .content("{\"name\": \"first\", \"email\": \"first" + mail + "\"}\n"
+                                + "{\"name\": \"taken\", \"email\": \"taken" + mail + "\"}\n"
+                                + "{\"name\": \"second\", \"email\": \"second" + mail + "\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.errors[*].row", is(List.of(2))));
+
+        assertTrue(userRepository.findByEmailContainingIgnoreCase("second" + mail).isPresent());
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.QueryBudget;
+import ru.practicum.shareit.QueryCounter;
+import ru.practicum.shareit.QueryDataset;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Import({QueryCounter.class, QueryDataset.class, QueryBudget.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserQueryBudgetTest {
+    private final QueryDataset dataset;
+    private final QueryBudget budget;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1_000, 10_000})
+    void userEndpoints_shouldStayWithinQueryBudget(int size) {
+        dataset.load(size);
+        Long userId = dataset.getOwnerId();
+
+        assertAll(
+                budget.check("POST /users", post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"new\", \"email\": \"new@email\"}"), 1, 1),
+                budget.check("PATCH /users/{id}", patch("/users/{id}", userId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"updated@email\"}"), 3, 1),
+                budget.check("GET /users/{id}", get("/users/{id}", userId), 1, 1),
+                budget.check("GET /users", get("/users"), 1, size + 1),
+                budget.check("DELETE /users/{id}", delete("/users/{id}", dataset.getFillerIds().get(0)), 2, 0)
+        );
+    }
+}
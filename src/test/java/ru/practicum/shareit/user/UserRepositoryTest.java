@@ -7,8 +7,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.practicum.shareit.cache.CacheConfig;
 import ru.practicum.shareit.exception.DuplicateEmailException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -29,11 +33,16 @@ public class UserRepositoryTest {
     private final UserDto user = new UserDto(1L, "name", "email@ya.ru");
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemViewCache itemViewCache;
     private UserService userService;
 
     @BeforeEach
     void setUp() {
-        userService = new UserService(userRepository);
+        userService = new UserService(userRepository, itemRepository, itemViewCache,
+                new ConcurrentMapCacheManager(CacheConfig.USERS));
     }
 
     @Test
@@ -42,7 +51,7 @@ public class UserRepositoryTest {
         when(userRepository.findById(any(Long.class)))
                 .thenReturn(Optional.of(newUser));
         User thisUser = userService.getById(1L);
-        verify(userRepository, Mockito.times(2)).findById(1L);
+        verify(userRepository, Mockito.times(1)).findById(1L);
 
         assertThat(user.getName(), equalTo(thisUser.getName()));
         assertThat(user.getEmail(), equalTo(thisUser.getEmail()));
@@ -59,7 +68,7 @@ public class UserRepositoryTest {
 
     @Test
     void shouldThrowExceptionIfEmailExists() {
-        when(userRepository.save(any()))
+        when(userRepository.saveAndFlush(any()))
                 .thenThrow(new DuplicateEmailException(""));
         assertThrows(DuplicateEmailException.class, () -> userService.create(user));
     }
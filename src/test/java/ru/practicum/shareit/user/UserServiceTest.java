@@ -110,7 +110,7 @@ public class UserServiceTest {
         User second = userService.create(new UserDto(2L, "user2", "user2@mail.ru"));
 
         assertEquals(2, userService.getAllUsers().size());
-        assertTrue(userService.getAllUsers().contains(first));
-        assertTrue(userService.getAllUsers().contains(second));
+        assertTrue(userService.getAllUsers().contains(UserMapper.userToDto(first)));
+        assertTrue(userService.getAllUsers().contains(UserMapper.userToDto(second)));
     }
 }
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.bulkhead;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Переводит обработку запросов Tomcat и задачи подсистем на виртуальные потоки. Собирается только
+ * с Maven-профилем {@code virtual-threads} (JDK 21) и включается Spring-профилем с тем же именем.
+ * Виртуальные потоки не объединяются в пулы: {@link Bulkhead} создаёт поток на задачу, а число одновременных
+ * обращений к базе ограничивают его семафоры и пул соединений Hikari.
+ */
+@Slf4j
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadsConfiguration {
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        log.info("Запросы Tomcat обрабатываются в виртуальных потоках");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public BulkheadThreadFactory virtualBulkheadThreadFactory() {
+        return subsystem -> Thread.ofVirtual().name(subsystem.propertyName() + "-", 0).factory();
+    }
+}